@@ -0,0 +1,92 @@
+package escampe;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Opérations de {@link EscampeBoard} appelées par l'arbitre et la recherche,
+ * sur les positions de {@link Positions}. {@code play} joue sur une copie du
+ * plateau : {@code copie} donne le coût de cette copie seule.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlateauBenchmark {
+    @Param({"ouverture", "milieu", "finale"})
+    String position;
+
+    private EscampeBoard board;
+    private final EscampeBoard lecture = new EscampeBoard();
+    private Path fichier, sortie;
+    private String coup;
+
+    @Setup
+    public void preparer() throws IOException {
+        fichier = Positions.fichier(position);
+        sortie  = Files.createTempFile("escampe-sortie", ".txt");
+        board   = Positions.plateau(position);
+        coup    = board.possiblesMoves("blanc")[0];
+    }
+
+    @TearDown
+    public void nettoyer() throws IOException {
+        Files.deleteIfExists(fichier);
+        Files.deleteIfExists(sortie);
+    }
+
+    @Benchmark
+    public String[] possiblesMoves() {
+        return board.possiblesMoves("blanc");
+    }
+
+    @Benchmark
+    public boolean isValidMove() {
+        return board.isValidMove(coup, "blanc");
+    }
+
+    @Benchmark
+    public EscampeBoard copie() {
+        return new EscampeBoard(board);
+    }
+
+    @Benchmark
+    public EscampeBoard play() {
+        EscampeBoard b = new EscampeBoard(board);
+        b.play(coup, "blanc");
+        return b;
+    }
+
+    @Benchmark
+    public boolean gameOver() {
+        return board.gameOver();
+    }
+
+    @Benchmark
+    public EscampeBoard setFromFile() {
+        lecture.setFromFile(fichier.toString());
+        return lecture;
+    }
+
+    @Benchmark
+    public void saveToFile() {
+        board.saveToFile(sortie.toString());
+    }
+}
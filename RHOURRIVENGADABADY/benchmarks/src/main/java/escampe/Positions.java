@@ -0,0 +1,54 @@
+package escampe;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Positions fixes des bancs d'essai, au format de {@link EscampeBoard#setFromFile} :
+ * blanc au trait, sans contrainte de liseré.
+ */
+final class Positions {
+    static final Map<String, String> PLATEAUX = Map.of(
+        "ouverture", "01 bb---- 01\n"
+                   + "02 -Bb-bb 02\n"
+                   + "03 ------ 03\n"
+                   + "04 ------ 04\n"
+                   + "05 -n-n-n 05\n"
+                   + "06 n-N-n- 06\n",
+        "milieu",    "01 --b--- 01\n"
+                   + "02 b--B-- 02\n"
+                   + "03 -b--n- 03\n"
+                   + "04 --n-b- 04\n"
+                   + "05 n--N-- 05\n"
+                   + "06 ---n-b 06\n",
+        "finale",    "01 ------ 01\n"
+                   + "02 --B--- 02\n"
+                   + "03 ----b- 03\n"
+                   + "04 -n---- 04\n"
+                   + "05 ---N-- 05\n"
+                   + "06 ------ 06\n");
+
+    private Positions() {
+    }
+
+    /** Ecrit la position {@code nom} dans un fichier temporaire et renvoie son chemin. */
+    static Path fichier(String nom) throws IOException {
+        Path f = Files.createTempFile("escampe-" + nom, ".txt");
+        Files.writeString(f, "% ABCDEF\n" + PLATEAUX.get(nom) + "% ABCDEF\n", StandardCharsets.UTF_8);
+        return f;
+    }
+
+    static EscampeBoard plateau(String nom) throws IOException {
+        Path f = fichier(nom);
+        try {
+            EscampeBoard b = new EscampeBoard();
+            b.setFromFile(f.toString());
+            return b;
+        } finally {
+            Files.delete(f);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package escampe;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Un appel complet à {@link JoueurIA#choixMouvement} à profondeur fixe, sans
+ * limite de temps, depuis une table de transposition vide : le résultat ne
+ * dépend que du code de recherche, pas de la vitesse de la machine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Descampe.hashMo=8")
+@State(Scope.Thread)
+public class RechercheBenchmark {
+    @Param({"ouverture", "milieu", "finale"})
+    String position;
+
+    @Param({"8"})
+    int profondeur;
+
+    private EscampeBoard plateau;
+    private JoueurIA joueur;
+
+    @Setup
+    public void preparer() throws IOException {
+        plateau = Positions.plateau(position);
+        joueur  = new JoueurIA();
+        joueur.setTempsParCoup(TimeUnit.HOURS.toMillis(1));
+        joueur.setProfondeurMax(profondeur);
+        joueur.setPonder(false);
+        joueur.initJoueur(IJoueur.BLANC);
+    }
+
+    @Setup(Level.Invocation)
+    public void repositionner() {
+        joueur.positionner(plateau);
+    }
+
+    @Benchmark
+    public String choixMouvement() {
+        return joueur.choixMouvement();
+    }
+}
@@ -0,0 +1,255 @@
+package escampe;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arène locale : fait jouer un grand nombre de parties indépendantes entre
+ * deux classes de {@link IJoueur}, en parallèle et sans réseau. Un
+ * {@link EscampeBoard} sert d'arbitre à chaque partie ; un coup invalide, une
+ * exception ou un coup qui dépasse la limite de temps fait perdre la partie.
+ *
+ * Contrairement à {@link Solo}, tout l'état d'une partie tient dans un objet
+ * {@link Partie}, ce qui permet d'en lancer autant que l'on veut sur le pool.
+ * Les couleurs alternent d'une partie à l'autre. Chaque partie terminée est
+ * écrite aussitôt dans le fichier de résultats (une ligne, champs séparés par
+ * des tabulations) ; le bilan y est ajouté à la fin, sur une ligne qui
+ * commence par {@code #}, et affiché.
+ *
+ * Une partie interrompue par une erreur de l'arène (joueur impossible à
+ * créer, exception de l'arbitre ou d'un joueur hors de choixMouvement) n'a
+ * pas de résultat : elle est comptée à part et n'entre pas dans le bilan.
+ *
+ * Le temps d'un coup est mesuré après coup : un joueur n'est pas interrompu,
+ * il perd s'il a dépassé la limite. Les {@link JoueurIA} et {@link JoueurMCTS}
+ * reçoivent le temps par coup, de quoi rester dans la limite.
+ *
+ * Usage : java escampe.Arene ClasseA ClasseB [parties=100] [fils] [tempsMs=100]
+ *         [fichier=arene.tsv] [coups max=300]
+ */
+public class Arene {
+    /** Marge sur le temps par coup avant de déclarer un dépassement. */
+    static final int MARGE_TEMPS = 2;
+
+    private final Class<? extends IJoueur> classeA, classeB;
+    private final int fils;
+    private final long tempsParCoup;
+    private final int maxCoups;
+
+    // Bilan, mis à jour par enregistrer() sous le verrou de l'arène
+    private int victoiresA, victoiresB, nulles, erreurs;
+    private long coupsJoues, appels, latenceNs;
+    private Writer sortie;
+
+    /** Etat d'une partie : les deux joueurs, l'arbitre et ce qu'on en retient. */
+    private final class Partie {
+        final int numero;
+        final boolean aBlanc;  // vrai si la classe A joue blanc
+        final EscampeBoard arbitre = new EscampeBoard();
+        IJoueur blanc, noir;
+        int coups;             // coups de jeu, placements non compris
+        int appels;
+        long latenceNs;
+        int vainqueur;         // IJoueur.BLANC, IJoueur.NOIR ou 0 pour une nulle
+        String raison = "";
+        boolean erreur;        // vrai si la partie n'est pas allée à son terme
+
+        Partie(int numero) {
+            this.numero = numero;
+            this.aBlanc = numero % 2 == 0;
+        }
+
+        void jouer() {
+            try {
+                blanc = creer(aBlanc ? classeA : classeB, IJoueur.BLANC);
+                noir  = creer(aBlanc ? classeB : classeA, IJoueur.NOIR);
+                derouler();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Joueur impossible à créer : " + e, e);
+            } finally {
+                // Même après une erreur : arrête la réflexion et les pools des joueurs
+                if (blanc != null) blanc.declareLeVainqueur(vainqueur);
+                if (noir  != null) noir.declareLeVainqueur(vainqueur);
+            }
+        }
+
+        private void derouler() {
+            // Noir place, blanc place, puis blanc joue le premier coup
+            IJoueur courant = noir;
+            for (int demiCoup = 0; ; demiCoup++) {
+                if (demiCoup >= maxCoups + 2) {
+                    raison = "coups max";
+                    break;
+                }
+                boolean estBlanc = courant == blanc;
+                String couleur = estBlanc ? "blanc" : "noir";
+                IJoueur autre = estBlanc ? noir : blanc;
+                String coup;
+                long debut = System.nanoTime();
+                try {
+                    coup = courant.choixMouvement();
+                } catch (RuntimeException e) {
+                    perdu(estBlanc, "exception " + e.getClass().getSimpleName());
+                    break;
+                }
+                long duree = System.nanoTime() - debut;
+                appels++;
+                latenceNs += duree;
+                if (duree > TimeUnit.MILLISECONDS.toNanos(tempsParCoup * MARGE_TEMPS)) {
+                    perdu(estBlanc, "temps");
+                    break;
+                }
+                if (coup == null || !arbitre.isValidMove(coup, couleur)) {
+                    perdu(estBlanc, "coup invalide " + coup);
+                    break;
+                }
+                arbitre.play(coup, couleur);
+                // Après le seul placement noir, gameOver() verrait la licorne blanche absente
+                if (demiCoup >= 2) coups++;
+                if (demiCoup >= 1 && arbitre.gameOver()) {
+                    vainqueur = estBlanc ? IJoueur.BLANC : IJoueur.NOIR;
+                    raison = "licorne prise";
+                    break;
+                }
+                autre.mouvementEnnemi(coup);
+                // Blanc rejoue après son placement
+                if (demiCoup != 1) courant = autre;
+            }
+        }
+
+        private void perdu(boolean estBlanc, String pourquoi) {
+            vainqueur = estBlanc ? IJoueur.NOIR : IJoueur.BLANC;
+            raison = pourquoi;
+        }
+    }
+
+    Arene(Class<? extends IJoueur> classeA, Class<? extends IJoueur> classeB,
+          int fils, long tempsParCoup, int maxCoups) {
+        this.classeA      = classeA;
+        this.classeB      = classeB;
+        this.fils         = fils;
+        this.tempsParCoup = tempsParCoup;
+        this.maxCoups     = maxCoups;
+    }
+
+    /** Joue {@code parties} parties et écrit une ligne par partie dans {@code sortie}. */
+    void jouer(int parties, Writer sortie) throws IOException, InterruptedException {
+        this.sortie = sortie;
+        sortie.write("partie\tblanc\tnoir\tvainqueur\traison\tcoups\tlatence_ms\n");
+        sortie.flush();
+        ExecutorService pool = Executors.newFixedThreadPool(fils);
+        try {
+            for (int i = 0; i < parties; i++) {
+                Partie p = new Partie(i);
+                pool.execute(() -> {
+                    try {
+                        p.jouer();
+                    } catch (RuntimeException e) {
+                        p.erreur = true;
+                        p.raison = "erreur " + e.getMessage();
+                    }
+                    enregistrer(p);
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        sortie.write("# " + bilan() + "\n");
+        sortie.flush();
+    }
+
+    private synchronized void enregistrer(Partie p) {
+        if (p.erreur) {
+            erreurs++;
+        } else {
+            if (p.vainqueur == 0) nulles++;
+            else if ((p.vainqueur == IJoueur.BLANC) == p.aBlanc) victoiresA++;
+            else victoiresB++;
+            coupsJoues += p.coups;
+            appels     += p.appels;
+            latenceNs  += p.latenceNs;
+        }
+        String a = classeA.getSimpleName(), b = classeB.getSimpleName();
+        String vainqueur = p.erreur ? "erreur" : p.vainqueur == 0 ? "nulle" : p.vainqueur == IJoueur.BLANC ? "blanc" : "noir";
+        try {
+            sortie.write(p.numero + "\t" + (p.aBlanc ? a : b) + "\t" + (p.aBlanc ? b : a) + "\t"
+                         + vainqueur + "\t" + p.raison + "\t" + p.coups + "\t"
+                         + String.format(Locale.ROOT, "%.2f", p.appels == 0 ? 0.0 : p.latenceNs / 1e6 / p.appels)
+                         + "\n");
+            sortie.flush();
+        } catch (IOException e) {
+            System.err.println("Ecriture des résultats impossible : " + e.getMessage());
+        }
+    }
+
+    synchronized int victoiresA() {
+        return victoiresA;
+    }
+
+    synchronized int victoiresB() {
+        return victoiresB;
+    }
+
+    synchronized int nulles() {
+        return nulles;
+    }
+
+    synchronized int erreurs() {
+        return erreurs;
+    }
+
+    /**
+     * Bilan des parties allées à leur terme : taux de victoire, longueur
+     * moyenne des parties et latence moyenne d'un coup ; les parties en
+     * erreur sont seulement comptées.
+     */
+    synchronized String bilan() {
+        int parties = victoiresA + victoiresB + nulles;
+        if (parties == 0) return "aucune partie terminée, " + erreurs + " erreurs";
+        return String.format(Locale.ROOT, "%s %d - %d %s, %d nulles (%.1f %% / %.1f %%) ; %.1f coups par partie ;"
+                             + " %.2f ms par coup ; %d erreurs",
+                             classeA.getSimpleName(), victoiresA, victoiresB, classeB.getSimpleName(), nulles,
+                             100.0 * victoiresA / parties, 100.0 * victoiresB / parties,
+                             (double) coupsJoues / parties, appels == 0 ? 0.0 : latenceNs / 1e6 / appels,
+                             erreurs);
+    }
+
+    private IJoueur creer(Class<? extends IJoueur> classe, int couleur) throws ReflectiveOperationException {
+        IJoueur j = classe.getDeclaredConstructor().newInstance();
+        if (j instanceof JoueurIA)   ((JoueurIA) j).setTempsParCoup(tempsParCoup);
+        if (j instanceof JoueurMCTS) ((JoueurMCTS) j).setTempsParCoup(tempsParCoup);
+        j.initJoueur(couleur);
+        return j;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Arene Usage: ClasseA ClasseB [parties] [fils] [tempsMs] [fichier] [coupsMax]");
+            System.exit(1);
+        }
+        Class<? extends IJoueur> a = Class.forName(args[0]).asSubclass(IJoueur.class);
+        Class<? extends IJoueur> b = Class.forName(args[1]).asSubclass(IJoueur.class);
+        int parties   = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int fils      = args.length > 3 ? Integer.parseInt(args[3])
+                                        : Runtime.getRuntime().availableProcessors();
+        long temps    = args.length > 4 ? Long.parseLong(args[4]) : 100;
+        String fichier = args.length > 5 ? args[5] : "arene.tsv";
+        int maxCoups  = args.length > 6 ? Integer.parseInt(args[6]) : 300;
+
+        Arene arene = new Arene(a, b, fils, temps, maxCoups);
+        long start = System.nanoTime();
+        try (Writer out = new BufferedWriter(new FileWriter(fichier))) {
+            arene.jouer(parties, out);
+        }
+        System.out.println(arene.bilan());
+        System.out.println(parties + " parties en " + (System.nanoTime() - start) / 1_000_000 + " ms, résultats dans "
+                           + fichier);
+    }
+}
@@ -0,0 +1,241 @@
+package escampe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Client qui joue plusieurs parties à la fois contre un arbitre, dans un seul
+ * processus. Le protocole est celui de {@link ClientJeu} (nom du binôme, puis
+ * couleur, JOUEUR, MOUVEMENT, FIN!), une connexion et une instance de joueur
+ * par partie.
+ *
+ * Un seul fil gère toutes les connexions, non bloquantes, avec un
+ * {@link Selector}. Les appels au joueur, dont choixMouvement qui cherche,
+ * partent sur un pool partagé de la taille du nombre de coeurs ; les messages
+ * d'une même partie y sont traités un par un, dans l'ordre d'arrivée.
+ *
+ * Avec plus de parties que de fils, une demande de coup peut attendre un fil
+ * libre pendant que la pendule de l'arbitre tourne : les {@link JoueurIA} et
+ * {@link JoueurMCTS} comptent leur temps depuis la réception de la demande.
+ *
+ * Exemple : java escampe.ClientMultiJeu escampe.JoueurIA localhost 1234 200
+ */
+public class ClientMultiJeu {
+    private final Selector selector;
+    private final ExecutorService recherche;
+    // Parties qui ont des messages à envoyer, transmises au fil du Selector
+    private final Queue<Partie> aEcrire = new ConcurrentLinkedQueue<>();
+    private int enCours;
+
+    /** Une connexion à l'arbitre et le joueur qui y joue. */
+    private final class Partie {
+        final SocketChannel canal;
+        final IJoueur joueur;
+        final ByteArrayOutputStream ligne = new ByteArrayOutputStream();
+        final Queue<ByteBuffer> sortie = new ConcurrentLinkedQueue<>();
+        // Lignes reçues pas encore traitées, avec leur instant de réception
+        // (System.nanoTime), et vrai si une tâche du pool les traite
+        final Queue<String> recues = new ArrayDeque<>();
+        final Queue<Long> instants = new ArrayDeque<>();
+        boolean traitement;
+        // Etat de la partie, lu et écrit uniquement par les tâches du pool
+        int maCouleur;
+        boolean couleurConnue;
+        volatile boolean terminee;
+
+        Partie(SocketChannel canal, IJoueur joueur) {
+            this.canal  = canal;
+            this.joueur = joueur;
+        }
+
+        void envoyer(String msg) {
+            sortie.add(ByteBuffer.wrap((msg + "\n").getBytes(StandardCharsets.UTF_8)));
+            aEcrire.add(this);
+            selector.wakeup();
+        }
+
+        /** Appelé par le fil du Selector pour chaque ligne complète. */
+        void recevoir(String msg) {
+            long recu = System.nanoTime();
+            synchronized (this) {
+                recues.add(msg);
+                instants.add(recu);
+                if (traitement) return;
+                traitement = true;
+            }
+            recherche.execute(this::traiter);
+        }
+
+        private void traiter() {
+            while (true) {
+                String msg;
+                long recu;
+                synchronized (this) {
+                    msg = recues.poll();
+                    if (msg == null) {
+                        traitement = false;
+                        return;
+                    }
+                    recu = instants.poll();
+                }
+                try {
+                    traiterMessage(msg, recu);
+                } catch (RuntimeException e) {
+                    System.err.println("Partie abandonnée : " + e);
+                    terminee = true;
+                    aEcrire.add(this);
+                    selector.wakeup();
+                }
+            }
+        }
+
+        /** Même logique que la boucle de ClientJeu ; {@code recu} : réception de la ligne. */
+        private void traiterMessage(String msg, long recu) {
+            StringTokenizer tok = new StringTokenizer(msg, " \n\0");
+            if (!tok.hasMoreTokens()) return;
+            String premier = tok.nextToken();
+            if (!couleurConnue) {
+                maCouleur = premier.equals("Blanc") ? ClientJeu.BLANC : ClientJeu.NOIR;
+                couleurConnue = true;
+                joueur.initJoueur(maCouleur);
+            } else if (premier.equals("FIN!")) {
+                String gagnant = tok.hasMoreTokens() ? tok.nextToken() : "";
+                joueur.declareLeVainqueur(gagnant.equals("Blanc") ? ClientJeu.BLANC
+                                        : gagnant.equals("Noir") ? ClientJeu.NOIR : ClientJeu.VIDE);
+                terminee = true;
+                aEcrire.add(this);
+                selector.wakeup();
+            } else if (premier.equals("JOUEUR")) {
+                int couleurAJouer = tok.nextToken().equals("Blanc") ? ClientJeu.BLANC : ClientJeu.NOIR;
+                if (couleurAJouer == maCouleur) {
+                    if (joueur instanceof JoueurIA)   ((JoueurIA) joueur).setDebutCoup(recu);
+                    if (joueur instanceof JoueurMCTS) ((JoueurMCTS) joueur).setDebutCoup(recu);
+                    envoyer(joueur.choixMouvement());
+                }
+            } else if (premier.equals("MOUVEMENT")) {
+                joueur.mouvementEnnemi(tok.nextToken());
+            }
+        }
+    }
+
+    ClientMultiJeu(int fils) throws IOException {
+        this.selector  = Selector.open();
+        this.recherche = Executors.newFixedThreadPool(fils);
+    }
+
+    /** Ouvre une connexion de plus, jouée par {@code joueur}. */
+    void connecter(InetSocketAddress adresse, IJoueur joueur) throws IOException {
+        SocketChannel canal = SocketChannel.open();
+        canal.configureBlocking(false);
+        canal.connect(adresse);
+        canal.register(selector, SelectionKey.OP_CONNECT, new Partie(canal, joueur));
+        enCours++;
+    }
+
+    /** Boucle du Selector, jusqu'à la fin de toutes les parties. */
+    void jouer() throws IOException {
+        ByteBuffer lecture = ByteBuffer.allocate(4096);
+        try {
+            while (enCours > 0) {
+                for (Partie p; (p = aEcrire.poll()) != null; ) {
+                    SelectionKey key = p.canal.keyFor(selector);
+                    if (key == null || !key.isValid()) continue;
+                    if (!p.sortie.isEmpty()) key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    else if (p.terminee) fermer(key);
+                }
+                selector.select();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Partie p = (Partie) key.attachment();
+                    try {
+                        if (key.isConnectable() && p.canal.finishConnect()) {
+                            key.interestOps(SelectionKey.OP_READ);
+                            p.envoyer(p.joueur.binoName());
+                        }
+                        if (key.isValid() && key.isReadable()) lire(key, p, lecture);
+                        if (key.isValid() && key.isWritable()) ecrire(key, p);
+                    } catch (IOException e) {
+                        System.err.println("Connexion perdue : " + e.getMessage());
+                        fermer(key);
+                    }
+                }
+            }
+        } finally {
+            recherche.shutdown();
+            selector.close();
+        }
+    }
+
+    private void lire(SelectionKey key, Partie p, ByteBuffer lecture) throws IOException {
+        lecture.clear();
+        int n = p.canal.read(lecture);
+        if (n < 0) {
+            fermer(key);
+            return;
+        }
+        lecture.flip();
+        while (lecture.hasRemaining()) {
+            byte b = lecture.get();
+            if (b == '\n') {
+                String msg = new String(p.ligne.toByteArray(), StandardCharsets.UTF_8).trim();
+                p.ligne.reset();
+                if (!msg.isEmpty()) p.recevoir(msg);
+            } else {
+                p.ligne.write(b);
+            }
+        }
+    }
+
+    private void ecrire(SelectionKey key, Partie p) throws IOException {
+        for (ByteBuffer buf; (buf = p.sortie.peek()) != null; p.sortie.poll()) {
+            p.canal.write(buf);
+            if (buf.hasRemaining()) return;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        if (p.terminee) fermer(key);
+    }
+
+    private void fermer(SelectionKey key) throws IOException {
+        if (!key.isValid()) return;
+        key.cancel();
+        key.channel().close();
+        enCours--;
+    }
+
+    /**
+     * @param args Dans l'ordre : NomClasseJoueur MachineServeur PortEcoute
+     *             NombreParties [Fils]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("ClientMultiJeu Usage: NomClasseJoueur MachineServeur PortEcoute NombreParties [Fils]");
+            System.exit(1);
+        }
+        Class<?> classeJoueur = Class.forName(args[0]);
+        InetSocketAddress adresse = new InetSocketAddress(args[1], Integer.parseInt(args[2]));
+        int parties = Integer.parseInt(args[3]);
+        int fils = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        ClientMultiJeu client = new ClientMultiJeu(fils);
+        for (int i = 0; i < parties; i++) {
+            client.connecter(adresse, (IJoueur) classeJoueur.getDeclaredConstructor().newInstance());
+        }
+        System.out.println(parties + " parties sur " + adresse + ", " + fils + " fils de recherche");
+        client.jouer();
+    }
+}
@@ -7,9 +7,18 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 
+/**
+ * Escampe board stored as bitboards.
+ *
+ * Square {@code sq = row * 6 + col} maps to bit {@code 1L << sq}, so the whole
+ * 6x6 board fits in the low 36 bits of a {@code long}. Each colour owns one
+ * bitboard for its licorne and one for its paladins; the Partie1 methods are a
+ * thin String adapter over the bitwise core.
+ */
 public class EscampeBoard implements Partie1 {
 
     private static final int SIZE = 6;
+    static final int NB_SQUARES = SIZE * SIZE;
     private static final int[][] boardTypes = {
         {1, 2, 2, 3, 1, 2},
         {3, 1, 3, 1, 3, 2},
@@ -19,9 +28,136 @@ public class EscampeBoard implements Partie1 {
         {3, 2, 2, 1, 3, 2}
     };
 
-    private Piece[][] board = new Piece[SIZE][SIZE];
-    private String currentPlayer = "noir";
-    private Position lastOpponentDest = null;  // null until first normal move
+    // Colour indices into the bitboard arrays
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+
+    /** Lisere value (1, 2 or 3) of each square. */
+    static final int[] LISERE = new int[NB_SQUARES];
+    /** Squares carrying each lisere value, indexed 1..3 (index 0 unused). */
+    static final long[] LISERE_MASK = new long[4];
+
+    // Two digits, optional sep, six chars, optional sep, two digits
+    private static final Pattern ROW_PATTERN = Pattern.compile("^\\d{1,2}\\s*([NnBb\\-]{6})\\s*\\d{1,2}$");
+
+    // Orthogonal directions: down, up, right, left
+    private static final int[] DIR_ROW = {1, -1, 0, 0};
+    private static final int[] DIR_COL = {0, 0, 1, -1};
+
+    /**
+     * Static move geometry: a piece on square s always moves exactly LISERE[s]
+     * squares in a straight line, so its candidate destinations (in direction
+     * order) and the squares each path crosses, which must be empty, are fixed.
+     * DESTINATION_MASK[s] is the union of DESTINATIONS[s].
+     */
+    private static final int[][] DESTINATIONS = new int[NB_SQUARES][];
+    private static final long[][] PATH_MASKS = new long[NB_SQUARES][];
+    private static final long[] DESTINATION_MASK = new long[NB_SQUARES];
+
+    /**
+     * For each square s, the squares whose moves pass through or land on s:
+     * only the pieces standing there can change mobility when s changes.
+     */
+    private static final long[] AFFECTED_BY = new long[NB_SQUARES];
+    private static final long ALL_SQUARES = (1L << NB_SQUARES) - 1;
+
+    /** Recompute mobility from scratch on every query and check it, -Descampe.verifierIncremental=true. */
+    static final boolean VERIFY_INCREMENTAL = Boolean.getBoolean("escampe.verifierIncremental");
+
+    // Zobrist keys: licornes and paladins of each colour per square, black to
+    // move, and the lisere value imposed by lastOpponentDest (index 0 = none)
+    private static final long[][] ZOBRIST_LICORNE = new long[2][NB_SQUARES];
+    private static final long[][] ZOBRIST_PALADIN = new long[2][NB_SQUARES];
+    private static final long ZOBRIST_BLACK_TO_MOVE;
+    private static final long[] ZOBRIST_LISERE = new long[4];
+
+    static {
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                int sq = r * SIZE + c;
+                LISERE[sq] = boardTypes[r][c];
+                LISERE_MASK[boardTypes[r][c]] |= 1L << sq;
+            }
+        }
+
+        // Fixed seed so keys are identical from one run to the next
+        Random rnd = new Random(0x45534341L);
+        for (int color = WHITE; color <= BLACK; color++) {
+            for (int sq = 0; sq < NB_SQUARES; sq++) {
+                ZOBRIST_LICORNE[color][sq] = rnd.nextLong();
+                ZOBRIST_PALADIN[color][sq] = rnd.nextLong();
+            }
+        }
+        ZOBRIST_BLACK_TO_MOVE = rnd.nextLong();
+        for (int l = 1; l <= 3; l++) ZOBRIST_LISERE[l] = rnd.nextLong();
+
+        int[] dests = new int[4];
+        long[] paths = new long[4];
+        for (int from = 0; from < NB_SQUARES; from++) {
+            int n = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                int to = target(from, dir);
+                if (to < 0) continue;
+                int step = DIR_ROW[dir] * SIZE + DIR_COL[dir];
+                long path = 0;
+                for (int sq = from + step; sq != to; sq += step) path |= 1L << sq;
+                dests[n] = to;
+                paths[n++] = path;
+                DESTINATION_MASK[from] |= 1L << to;
+                for (long bb = path | 1L << to; bb != 0; bb &= bb - 1) {
+                    AFFECTED_BY[Long.numberOfTrailingZeros(bb)] |= 1L << from;
+                }
+            }
+            DESTINATIONS[from] = Arrays.copyOf(dests, n);
+            PATH_MASKS[from] = Arrays.copyOf(paths, n);
+        }
+    }
+
+    private final long[] licornes = new long[2];
+    private final long[] paladins = new long[2];
+    private int currentPlayer = BLACK;
+    private int lastOpponentDest = -1;  // -1 until first normal move
+    private long hash = computeHash();
+
+    // Undo stack of makeMove(int, int): previous lastOpponentDest + 1 (bits 0-5),
+    // previous currentPlayer (bit 6), capture (bit 7), and previous key
+    private static final int MAX_UNDO = 256;
+    private final int[] undoState = new int[MAX_UNDO];
+    private final long[] undoHash = new long[MAX_UNDO];
+    private int undoTop;
+
+    // Incremental mobility: number of moves of the piece on each square (ignoring
+    // the lisere constraint), its colour, and totals per colour and lisere value
+    private final int[] squareMobility = new int[NB_SQUARES];
+    private final int[] squareOwner = new int[NB_SQUARES];
+    private final int[][] mobility = new int[2][4];
+    // Pieces of each colour bucketed by the lisere value of their square, kept
+    // alongside the mobility counters: the only pieces a lisere constraint lets move
+    private final long[][] lisereBuckets = new long[2][4];
+
+    // Sampled JFR burst of generateQuiets calls (see EvenementsJfr.Generation):
+    // null unless a recording is enabled and a burst is in progress
+    private int generationCalls;
+    private EvenementsJfr.Generation burst;
+    private long burstStartBytes;
+
+    public EscampeBoard() {
+    }
+
+    /** Independent copy, e.g. for a search thread that needs its own board. */
+    public EscampeBoard(EscampeBoard other) {
+        System.arraycopy(other.licornes, 0, licornes, 0, 2);
+        System.arraycopy(other.paladins, 0, paladins, 0, 2);
+        this.currentPlayer    = other.currentPlayer;
+        this.lastOpponentDest = other.lastOpponentDest;
+        this.hash             = other.hash;
+        System.arraycopy(other.squareMobility, 0, squareMobility, 0, NB_SQUARES);
+        System.arraycopy(other.squareOwner, 0, squareOwner, 0, NB_SQUARES);
+        for (int color = WHITE; color <= BLACK; color++) {
+            System.arraycopy(other.mobility[color], 0, mobility[color], 0, 4);
+            System.arraycopy(other.lisereBuckets[color], 0, lisereBuckets[color], 0, 4);
+        }
+    }
 
     @Override
     public void setFromFile(String fileName) {
@@ -38,31 +174,36 @@ public class EscampeBoard implements Partie1 {
                 throw new RuntimeException("Fichier invalide : attendu 6 lignes, trouvé " + boardLines.size());
             }
 
-            // 2) parse each line with a regex: two digits, optional sep, six chars, optional sep, two digits
-            Pattern p = Pattern.compile("^\\d{1,2}\\s*([NnBb\\-]{6})\\s*\\d{1,2}$");
+            // 2) parse each line with the row regex
+            long[] lic = new long[2], pal = new long[2];
             for (int i = 0; i < SIZE; i++) {
                 String rowLine = boardLines.get(i);
-                Matcher m = p.matcher(rowLine);
+                Matcher m = ROW_PATTERN.matcher(rowLine);
                 if (!m.matches()) {
                     throw new RuntimeException("Ligne invalide : " + rowLine);
                 }
                 String content = m.group(1);  // the six-board-character substring
                 for (int j = 0; j < SIZE; j++) {
+                    long bit = 1L << (i * SIZE + j);
                     char c = content.charAt(j);
                     switch (c) {
-                        case 'N': board[i][j] = new Piece("licorne", "noir");  break;
-                        case 'n': board[i][j] = new Piece("paladin", "noir"); break;
-                        case 'B': board[i][j] = new Piece("licorne", "blanc"); break;
-                        case 'b': board[i][j] = new Piece("paladin", "blanc"); break;
-                        case '-': board[i][j] = null;                          break;
+                        case 'N': lic[BLACK] |= bit; break;
+                        case 'n': pal[BLACK] |= bit; break;
+                        case 'B': lic[WHITE] |= bit; break;
+                        case 'b': pal[WHITE] |= bit; break;
+                        case '-':                    break;
                         default:  throw new RuntimeException("Symbole non reconnu : " + c);
                     }
                 }
             }
+            System.arraycopy(lic, 0, licornes, 0, 2);
+            System.arraycopy(pal, 0, paladins, 0, 2);
 
             // (re)initialize turn / lastLisere if your code needs it…
-            this.lastOpponentDest = null;
-            this.currentPlayer   = "blanc";
+            this.lastOpponentDest = -1;
+            this.currentPlayer   = WHITE;
+            this.hash            = computeHash();
+            refreshMobility(ALL_SQUARES);
 
         } catch (IOException e) {
             throw new RuntimeException("Erreur lecture fichier", e);
@@ -76,17 +217,7 @@ public class EscampeBoard implements Partie1 {
             for (int row = 0; row < SIZE; row++) {
                 writer.write(String.format("%02d ", row + 1));
                 for (int col = 0; col < SIZE; col++) {
-                    Piece p = board[row][col];
-                    char symbol = '-';
-                    if (p != null) {
-                        // Uppercase = licorne; lowercase = paladin
-                        if (p.color.equals("noir")) {
-                            symbol = p.type.equals("licorne") ? 'N' : 'n';
-                        } else {
-                            symbol = p.type.equals("licorne") ? 'B' : 'b';
-                        }
-                    }
-                    writer.write(symbol);
+                    writer.write(symbolAt(row * SIZE + col));
                 }
                 writer.write(String.format(" %02d\n", row + 1));
             }
@@ -98,20 +229,22 @@ public class EscampeBoard implements Partie1 {
 
     @Override
     public boolean isValidMove(String move, String player) {
+        int color = colorOf(player);
+
         // 1) Pass only if no other move is available
         if ("E".equals(move)) {
-            String[] pm = possiblesMoves(player);
-            return pm.length == 1 && "E".equals(pm[0]);
+            return !hasMove(color);
         }
 
         // 2) Opening placement: exactly 6 positions, all empty, and it's your turn
         if (move.contains("/")) {
-            if (!player.equals(currentPlayer)) return false;
+            if (color != currentPlayer) return false;
             String[] cells = move.split("/");
             if (cells.length != SIZE) return false;
+            long occ = occupied();
             for (String s : cells) {
-                Position pos = Position.fromString(s);
-                if (board[pos.row][pos.col] != null) return false;
+                int sq = square(s);
+                if (sq < 0 || (occ & (1L << sq)) != 0) return false;
             }
             return true;
         }
@@ -119,133 +252,533 @@ public class EscampeBoard implements Partie1 {
         // 3) Normal move must be "C1-D4"
         String[] parts = move.split("-");
         if (parts.length != 2) return false;
-        Position from = Position.fromString(parts[0]);
-        Position to   = Position.fromString(parts[1]);
-
-        Piece p = board[from.row][from.col];
-        if (p == null || !p.color.equals(player)) return false;
+        int from = square(parts[0]);
+        int to   = square(parts[1]);
+        if (from < 0 || to < 0) return false;
 
-        // 4) Lisere constraint (except first move)
-        if (lastOpponentDest != null) {
-            int required = boardTypes[lastOpponentDest.row][lastOpponentDest.col];
-            if (boardTypes[from.row][from.col] != required) return false;
-        }
+        // 4) Moving piece must be ours and stand on the required lisere
+        if ((movablePieces(color) & (1L << from)) == 0) return false;
 
-        // 5) Orthogonal, exact distance
-        int dr = to.row - from.row, dc = to.col - from.col;
-        if (dr != 0 && dc != 0) return false;
-        int dist = Math.abs(dr) + Math.abs(dc);
-        int allowed = boardTypes[from.row][from.col];
-        if (dist != allowed) return false;
+        // 5..7) Orthogonal exact distance, clear path, capture rules
+        return canReach(from, to, color);
+    }
 
-        // 6) Path must be clear (except capture square)
-        int stepR = Integer.signum(dr), stepC = Integer.signum(dc);
-        int r = from.row, c = from.col;
-        for (int i = 1; i <= dist; i++) {
-            r += stepR; c += stepC;
-            if (i < dist && board[r][c] != null) return false;
-        }
+    @Override
+    public String[] possiblesMoves(String player) {
+        int[] buf = new int[Move.MAX_MOVES];
+        int n = generateMoves(colorOf(player), buf);
+        String[] moves = new String[n];
+        for (int i = 0; i < n; i++) moves[i] = Move.toString(buf[i]);
+        return moves;
+    }
 
-        // 7) Capture rules: only paladin can capture enemy licorne
-        Piece dest = board[to.row][to.col];
-        if (dest != null) {
-            if (!p.type.equals("paladin") ||
-                !dest.type.equals("licorne") ||
-                dest.color.equals(p.color)) {
-                return false;
-            }
-        }
+    private void startBurst() {
+        EvenementsJfr.Generation e = new EvenementsJfr.Generation();
+        if (!e.isEnabled()) return;
+        burstStartBytes = EvenementsJfr.octetsAlloues();
+        burst = e;
+        e.begin();
+    }
 
-        return true;
+    private void recordBurst(int moves) {
+        burst.coups += moves;
+        if (++burst.appels < EvenementsJfr.Generation.RAFALE) return;
+        burst.octetsAlloues = EvenementsJfr.octetsAlloues() - burstStartBytes;
+        burst.commit();
+        burst = null;
     }
 
-    @Override
-    public String[] possiblesMoves(String player) {
-        List<String> moves = new ArrayList<>();
+    /**
+     * Allocation-free move generation: writes the encoded moves of {@code color}
+     * into {@code buf} (at least {@link Move#MAX_MOVES} long), captures first,
+     * and returns how many there are. If none, the only legal move is a pass.
+     */
+    public int generateMoves(int color, int[] buf) {
+        int n = generateQuiets(color, buf, generateCaptures(color, buf, 0));
+        if (n == 0) buf[n++] = Move.PASS;
+        return n;
+    }
 
-        // Generate real moves
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                Piece p = board[r][c];
-                if (p == null || !p.color.equals(player)) continue;
-                if (lastOpponentDest != null) {
-                    int req = boardTypes[lastOpponentDest.row][lastOpponentDest.col];
-                    if (boardTypes[r][c] != req) continue;
-                }
-                int d = boardTypes[r][c];
-                for (int[] dir : new int[][]{{1,0},{-1,0},{0,1},{0,-1}}) {
-                    int nr = r + dir[0]*d, nc = c + dir[1]*d;
-                    if (nr<0||nr>=SIZE||nc<0||nc>=SIZE) continue;
-                    String m = Position.toString(r,c) + "-" + Position.toString(nr,nc);
-                    if (isValidMove(m, player)) moves.add(m);
-                }
+    /**
+     * First generation stage: appends to {@code buf} from index {@code n} the
+     * moves of {@code color} that take the enemy licorne, and returns the new
+     * count. Only movable paladins that have the licorne among their
+     * destinations are looked at.
+     */
+    public int generateCaptures(int color, int[] buf, int n) {
+        long enemyLicorne = licornes[color ^ 1];
+        if (enemyLicorne == 0) return n;
+        int to = Long.numberOfTrailingZeros(enemyLicorne);
+        long occ = occupied();
+        for (long bb = movablePieces(color) & paladins[color]; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            if ((DESTINATION_MASK[from] & enemyLicorne) != 0
+                    && (reachable(from, color, occ) & enemyLicorne) != 0) {
+                buf[n++] = Move.encode(from, to, Move.CAPTURE);
             }
         }
+        return n;
+    }
 
-        // If none, the only legal move is "E"
-        if (moves.isEmpty()) {
-            return new String[]{ "E" };
+    /**
+     * Second generation stage: appends the moves of {@code color} to an empty
+     * square. Together with {@link #generateCaptures} this is every legal move
+     * except the pass. Every full generation goes through here, the search's
+     * staged one as well as generateMoves and possiblesMoves, so this is where
+     * the JFR generation bursts are sampled.
+     */
+    public int generateQuiets(int color, int[] buf, int n) {
+        if ((generationCalls++ & (EvenementsJfr.Generation.ECHANTILLON - 1)) == 0) startBurst();
+        long occ = occupied();
+        for (long movers = movablePieces(color); movers != 0; movers &= movers - 1) {
+            int from = Long.numberOfTrailingZeros(movers);
+            int[] dests = DESTINATIONS[from];
+            long[] paths = PATH_MASKS[from];
+            for (int k = 0; k < dests.length; k++) {
+                int to = dests[k];
+                if (((paths[k] | 1L << to) & occ) == 0) buf[n++] = Move.encode(from, to, 0);
+            }
         }
-        return moves.toArray(new String[0]);
+        if (burst != null) recordBurst(n);
+        return n;
+    }
+
+    /**
+     * Whether {@code move}, flags included, is legal for {@code color} here.
+     * Lets the search play a transposition table move before generating
+     * anything: a key collision may hand it a move from another position.
+     */
+    public boolean isLegal(int move, int color) {
+        if (Move.isPass(move)) return move == Move.PASS && !hasMove(color);
+        int from = Move.from(move), to = Move.to(move);
+        if ((movablePieces(color) & (1L << from)) == 0) return false;
+        if (Move.isCapture(move) != ((licornes[color ^ 1] & (1L << to)) != 0)) return false;
+        return (move & ~(Move.KEY_MASK | Move.CAPTURE)) == 0 && canReach(from, to, color);
+    }
+
+    /** Whether {@code player} has a move other than the pass; stops at the first one. */
+    public boolean hasLegalMove(String player) {
+        return hasMove(colorOf(player));
+    }
+
+    /**
+     * Number of moves of {@code player} other than the pass, read from the
+     * incremental mobility counters without generating anything.
+     */
+    public int countMoves(String player) {
+        return mobility(colorOf(player));
     }
 
     @Override
     public void play(String move, String player) {
         if (!isValidMove(move, player))
             throw new IllegalArgumentException("Coup invalide : " + move);
+        int color = colorOf(player);
 
-        // 1) Pass
-        if ("E".equals(move)) {
-            lastOpponentDest = null;
-            currentPlayer = opponentOf(player);
-            return;
-        }
-
-        // 2) Opening placement
+        // 1) Opening placement
         if (move.contains("/")) {
             String[] cells = move.split("/");
             for (int i = 0; i < cells.length; i++) {
-                Position pos = Position.fromString(cells[i]);
-                if (i == 0) board[pos.row][pos.col] = new Piece("licorne", player);
-                else      board[pos.row][pos.col] = new Piece("paladin",  player);
+                int sq = square(cells[i]);
+                if (i == 0) { licornes[color] |= 1L << sq; hash ^= ZOBRIST_LICORNE[color][sq]; }
+                else        { paladins[color] |= 1L << sq; hash ^= ZOBRIST_PALADIN[color][sq]; }
             }
-            // no lisere constraint yet
-            lastOpponentDest = null;
-            currentPlayer = opponentOf(player);
+            refreshMobility(ALL_SQUARES);
+            // no lisere constraint yet; white places second and then moves first
+            setLastOpponentDest(-1);
+            setCurrentPlayer(WHITE);
             return;
         }
 
-        // 3) Normal move
-        String[] parts = move.split("-");
-        Position from = Position.fromString(parts[0]);
-        Position to   = Position.fromString(parts[1]);
-        Piece p = board[from.row][from.col];
-        board[from.row][from.col] = null;
-        board[to.row][to.col] = p;  // overwrite or capture
+        // 2) Pass or normal move
+        makeMove(move, player);
+    }
+
+    /**
+     * Plays a pass or a normal move without validating it, for search code that
+     * only feeds moves coming from {@link #possiblesMoves}. Opening placements are
+     * not supported.
+     *
+     * @return the record that {@link #unmakeMove(Undo)} needs to restore this position
+     */
+    public Undo makeMove(String move, String player) {
+        int m = Move.parse(move);
+        Undo u = new Undo(m, lastOpponentDest, currentPlayer, hash);
+        u.capture = doMove(m, colorOf(player));
+        return u;
+    }
+
+    /** Takes back the move that returned {@code u}; moves must be undone in reverse order. */
+    public void unmakeMove(Undo u) {
+        undoMove(u.move, u.capture, u.lastOpponentDest, u.currentPlayer, u.hash);
+    }
+
+    /** What {@link #unmakeMove(Undo)} needs: the move, whether it captured, and the state it replaced. */
+    public static final class Undo {
+        final int move;
+        boolean capture;              // enemy licorne taken on the destination
+        final int lastOpponentDest;
+        final int currentPlayer;
+        final long hash;
+
+        Undo(int move, int lastOpponentDest, int currentPlayer, long hash) {
+            this.move = move;
+            this.lastOpponentDest = lastOpponentDest;
+            this.currentPlayer = currentPlayer;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Allocation-free variant of {@link #makeMove(String, String)} for encoded
+     * moves: the undo information goes on an internal stack, so moves must be
+     * taken back with {@link #unmakeMove(int)} in reverse order.
+     */
+    public void makeMove(int move, int color) {
+        undoState[undoTop] = (lastOpponentDest + 1) | currentPlayer << 6;
+        undoHash[undoTop]  = hash;
+        if (doMove(move, color)) undoState[undoTop] |= 1 << 7;
+        undoTop++;
+    }
+
+    public void unmakeMove(int move) {
+        undoTop--;
+        int state = undoState[undoTop];
+        undoMove(move, (state & (1 << 7)) != 0, (state & 63) - 1, (state >>> 6) & 1, undoHash[undoTop]);
+    }
+
+    /**
+     * Writes into {@code buf} (at least {@link Placement#COUNT} long) the
+     * placements {@code color} may choose among, and returns how many there
+     * are: every layout of each home side whose twelve squares are all empty.
+     */
+    public int generatePlacements(int color, int[] buf) {
+        int n = 0;
+        long occ = occupied();
+        if ((licornes[color] | paladins[color]) != 0) return 0;
+        for (int side = 0; side < Placement.SIDES; side++) {
+            if ((occ & Placement.sideSquares(side)) != 0) continue;
+            for (int i = 0; i < Placement.PER_SIDE; i++) buf[n++] = side * Placement.PER_SIDE + i;
+        }
+        return n;
+    }
+
+    /** Puts down the pieces of {@code color} as {@link Placement} index {@code placement}. */
+    public void makePlacement(int placement, int color) {
+        undoState[undoTop] = (lastOpponentDest + 1) | currentPlayer << 6;
+        undoHash[undoTop]  = hash;
+        undoTop++;
+        int licorne = Placement.licorne(placement);
+        long pal = Placement.paladins(placement);
+        licornes[color] |= 1L << licorne;
+        paladins[color] |= pal;
+        hash ^= ZOBRIST_LICORNE[color][licorne];
+        for (long bb = pal; bb != 0; bb &= bb - 1) {
+            hash ^= ZOBRIST_PALADIN[color][Long.numberOfTrailingZeros(bb)];
+        }
+        refreshMobility(placementAffected(placement));
+        setLastOpponentDest(-1);
+        setCurrentPlayer(WHITE);
+    }
+
+    public void unmakePlacement(int placement, int color) {
+        undoTop--;
+        int state = undoState[undoTop];
+        currentPlayer = (state >>> 6) & 1;
+        lastOpponentDest = (state & 63) - 1;
+        hash = undoHash[undoTop];
+        licornes[color] &= ~Placement.squares(placement);
+        paladins[color] &= ~Placement.squares(placement);
+        refreshMobility(placementAffected(placement));
+    }
+
+    private static long placementAffected(int placement) {
+        long squares = Placement.squares(placement), affected = squares;
+        for (long bb = squares; bb != 0; bb &= bb - 1) {
+            affected |= AFFECTED_BY[Long.numberOfTrailingZeros(bb)];
+        }
+        return affected;
+    }
+
+    /** Applies {@code move} for {@code color}; returns true if it took the enemy licorne. */
+    private boolean doMove(int move, int color) {
+        boolean capture = false;
+        if (Move.isPass(move)) {
+            setLastOpponentDest(-1);
+        } else {
+            int from = Move.from(move), to = Move.to(move);
+            long fromBit = 1L << from, toBit = 1L << to;
+            capture = (licornes[color ^ 1] & toBit) != 0;
+            if (capture) {
+                licornes[color ^ 1] &= ~toBit;
+                hash ^= ZOBRIST_LICORNE[color ^ 1][to];
+            }
+            if ((licornes[color] & fromBit) != 0) {
+                licornes[color] ^= fromBit | toBit;
+                hash ^= ZOBRIST_LICORNE[color][from] ^ ZOBRIST_LICORNE[color][to];
+            } else {
+                paladins[color] ^= fromBit | toBit;
+                hash ^= ZOBRIST_PALADIN[color][from] ^ ZOBRIST_PALADIN[color][to];
+            }
+            refreshMobility(AFFECTED_BY[from] | AFFECTED_BY[to] | fromBit | toBit);
+            setLastOpponentDest(to);
+        }
+        setCurrentPlayer(color ^ 1);
+        return capture;
+    }
+
+    private void undoMove(int move, boolean capture, int prevDest, int prevPlayer, long prevHash) {
+        currentPlayer = prevPlayer;
+        lastOpponentDest = prevDest;
+        hash = prevHash;
+        if (Move.isPass(move)) return;
+        int from = Move.from(move), to = Move.to(move);
+        int color = colorOfPieceAt(to);
+        long fromBit = 1L << from, toBit = 1L << to;
+        if ((licornes[color] & toBit) != 0) licornes[color] ^= fromBit | toBit;
+        else                                paladins[color] ^= fromBit | toBit;
+        if (capture) licornes[color ^ 1] |= toBit;
+        refreshMobility(AFFECTED_BY[from] | AFFECTED_BY[to] | fromBit | toBit);
+    }
+
+    /**
+     * Zobrist key of the position: piece placement, side to move and lisere
+     * constraint. Kept up to date incrementally by play/makeMove/unmakeMove.
+     */
+    public long hashKey() {
+        return hash;
+    }
+
+    /** Recomputes the Zobrist key from scratch; {@link #hashKey} must always equal it. */
+    long computeHash() {
+        long h = 0;
+        for (int color = WHITE; color <= BLACK; color++) {
+            for (long bb = licornes[color]; bb != 0; bb &= bb - 1) h ^= ZOBRIST_LICORNE[color][Long.numberOfTrailingZeros(bb)];
+            for (long bb = paladins[color]; bb != 0; bb &= bb - 1) h ^= ZOBRIST_PALADIN[color][Long.numberOfTrailingZeros(bb)];
+        }
+        if (currentPlayer == BLACK) h ^= ZOBRIST_BLACK_TO_MOVE;
+        if (lastOpponentDest >= 0) h ^= ZOBRIST_LISERE[LISERE[lastOpponentDest]];
+        return h;
+    }
+
+    private void setCurrentPlayer(int color) {
+        if (color != currentPlayer) hash ^= ZOBRIST_BLACK_TO_MOVE;
+        currentPlayer = color;
+    }
 
-        lastOpponentDest = to;
-        currentPlayer = opponentOf(player);
+    private void setLastOpponentDest(int sq) {
+        if (lastOpponentDest >= 0) hash ^= ZOBRIST_LISERE[LISERE[lastOpponentDest]];
+        if (sq >= 0)               hash ^= ZOBRIST_LISERE[LISERE[sq]];
+        lastOpponentDest = sq;
     }
 
     @Override
     public boolean gameOver() {
-        boolean hasNoir = false, hasBlanc = false;
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                Piece p = board[r][c];
-                if (p != null && p.type.equals("licorne")) {
-                    if (p.color.equals("noir"))  hasNoir = true;
-                    if (p.color.equals("blanc")) hasBlanc= true;
-                }
+        return licornes[WHITE] == 0 || licornes[BLACK] == 0;
+    }
+
+    /**
+     * Pieces of {@code color} allowed to move: all of them before the first
+     * normal move, otherwise only those on the lisere of the last destination.
+     */
+    long movablePieces(int color) {
+        if (lastOpponentDest < 0) return licornes[color] | paladins[color];
+        return lisereBuckets[color][LISERE[lastOpponentDest]];
+    }
+
+    /**
+     * Number of moves {@code color} has right now (lisere constraint included,
+     * a forced pass counts 0), read from the incremental counters.
+     */
+    int mobility(int color) {
+        int m = lastOpponentDest < 0
+              ? mobility[color][1] + mobility[color][2] + mobility[color][3]
+              : mobility[color][LISERE[lastOpponentDest]];
+        if (VERIFY_INCREMENTAL && m != countMovesExact(color)) {
+            throw new IllegalStateException("Mobilité incrémentale fausse : " + m + " au lieu de " + countMovesExact(color));
+        }
+        return m;
+    }
+
+    int pieceCount(int color) {
+        return Long.bitCount(licornes[color] | paladins[color]);
+    }
+
+    boolean hasLicorne(int color) {
+        return licornes[color] != 0;
+    }
+
+    long paladinBits(int color) {
+        return paladins[color];
+    }
+
+    /** Lisere value the next mover must play from, or 0 if any piece may move. */
+    int lisereConstraint() {
+        return lastOpponentDest < 0 ? 0 : LISERE[lastOpponentDest];
+    }
+
+    /** Square of the licorne of {@code color}, or -1 once it has been taken. */
+    int licorneSquare(int color) {
+        return licornes[color] == 0 ? -1 : Long.numberOfTrailingZeros(licornes[color]);
+    }
+
+    /** Whether {@code color} can take the enemy licorne right now; stops at the first capture. */
+    boolean hasCapture(int color) {
+        return reachesLicorne(movablePieces(color) & paladins[color], color);
+    }
+
+    /**
+     * Whether a paladin of the other side has a clear path to the licorne of
+     * {@code color}, lisere constraint ignored: the capture {@code color} must
+     * stop with its next move, by its lisere, a block or a licorne move.
+     */
+    boolean licorneThreatened(int color) {
+        return reachesLicorne(paladins[color ^ 1], color ^ 1);
+    }
+
+    /** Whether one of the {@code pieces} of {@code color} can land on the enemy licorne. */
+    private boolean reachesLicorne(long pieces, int color) {
+        long enemyLicorne = licornes[color ^ 1];
+        if (enemyLicorne == 0) return false;
+        long occ = occupied();
+        for (long bb = pieces; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            if ((DESTINATION_MASK[from] & enemyLicorne) != 0
+                    && (reachable(from, color, occ) & enemyLicorne) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Reference count of the moves of {@code color}, by full generation. */
+    int countMovesExact(int color) {
+        int n = 0;
+        long own = licornes[color] | paladins[color];
+        if (lastOpponentDest >= 0) own &= LISERE_MASK[LISERE[lastOpponentDest]];
+        for (long movers = own; movers != 0; movers &= movers - 1) {
+            n += pieceMobility(Long.numberOfTrailingZeros(movers));
+        }
+        return n;
+    }
+
+    /** Moves of the piece on {@code sq}, ignoring the lisere constraint. */
+    private int pieceMobility(int sq) {
+        return Long.bitCount(reachable(sq, colorOfPieceAt(sq), occupied()));
+    }
+
+    /** Destinations the piece of {@code color} on {@code from} can reach, as a bitmask. */
+    private long reachable(int from, int color, long occ) {
+        return destinations(from, occ, (paladins[color] & (1L << from)) != 0 ? licornes[color ^ 1] : 0);
+    }
+
+    /**
+     * Destinations of a piece on {@code from} for the occupancy {@code occ},
+     * as a bitmask; of the occupied squares, only those in {@code capturable}
+     * may be landed on. Lets code outside the board, such as the endgame
+     * table generator, move pieces on raw bitboards.
+     */
+    static long destinations(int from, long occ, long capturable) {
+        int[] dests = DESTINATIONS[from];
+        long[] paths = PATH_MASKS[from];
+        long reach = 0;
+        for (int k = 0; k < dests.length; k++) {
+            if ((occ & paths[k]) == 0) reach |= 1L << dests[k];
+        }
+        return reach & (~occ | capturable);
+    }
+
+    /** Recomputes the mobility of the pieces on {@code squares} and the totals. */
+    private void refreshMobility(long squares) {
+        long occ = occupied();
+        for (long bb = squares; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            int l = LISERE[sq];
+            mobility[squareOwner[sq]][l] -= squareMobility[sq];
+            lisereBuckets[squareOwner[sq]][l] &= ~(1L << sq);
+            squareMobility[sq] = 0;
+            if ((occ & (1L << sq)) != 0) {
+                int color = colorOfPieceAt(sq);
+                squareMobility[sq] = Long.bitCount(reachable(sq, color, occ));
+                squareOwner[sq] = color;
+                mobility[color][l] += squareMobility[sq];
+                lisereBuckets[color][l] |= 1L << sq;
             }
         }
-        return !(hasNoir && hasBlanc);
     }
 
-    private String opponentOf(String p) {
-        return p.equals("blanc") ? "noir" : "blanc";
+    long occupied() {
+        return licornes[WHITE] | licornes[BLACK] | paladins[WHITE] | paladins[BLACK];
     }
+
+    private boolean hasMove(int color) {
+        long occ = occupied();
+        for (long movers = movablePieces(color); movers != 0; movers &= movers - 1) {
+            if (reachable(Long.numberOfTrailingZeros(movers), color, occ) != 0) return true;
+        }
+        return false;
+    }
+
+    /** Square reached from {@code from} in direction {@code dir} at lisere distance, or -1 if off board. */
+    private static int target(int from, int dir) {
+        int d = LISERE[from];
+        int nr = from / SIZE + DIR_ROW[dir] * d, nc = from % SIZE + DIR_COL[dir] * d;
+        if (nr < 0 || nr >= SIZE || nc < 0 || nc >= SIZE) return -1;
+        return nr * SIZE + nc;
+    }
+
+    /**
+     * Geometry and occupancy checks for a piece of {@code color} on {@code from}:
+     * orthogonal, exact lisere distance, clear path, and only a paladin may land
+     * on the enemy licorne.
+     */
+    private boolean canReach(int from, int to, int color) {
+        return (DESTINATION_MASK[from] & (1L << to)) != 0
+            && (reachable(from, color, occupied()) & (1L << to)) != 0;
+    }
+
+    private int colorOfPieceAt(int sq) {
+        return ((licornes[BLACK] | paladins[BLACK]) & (1L << sq)) != 0 ? BLACK : WHITE;
+    }
+
+    private char symbolAt(int sq) {
+        long bit = 1L << sq;
+        // Uppercase = licorne; lowercase = paladin
+        if ((licornes[BLACK] & bit) != 0) return 'N';
+        if ((paladins[BLACK] & bit) != 0) return 'n';
+        if ((licornes[WHITE] & bit) != 0) return 'B';
+        if ((paladins[WHITE] & bit) != 0) return 'b';
+        return '-';
+    }
+
+    static int colorOf(String player) {
+        return "noir".equals(player) ? BLACK : WHITE;
+    }
+
+    /** Square index of a cell name like "C4", or -1 if it is not on the board. */
+    static int square(String s) {
+        if (s.length() != 2) return -1;
+        return square(s.charAt(0), s.charAt(1));
+    }
+
+    static int square(char colName, char rowName) {
+        int col = colName - 'A', row = rowName - '1';
+        if (col < 0 || col >= SIZE || row < 0 || row >= SIZE) return -1;
+        return row * SIZE + col;
+    }
+
+
+    /** Snapshot of the board as pieces, rebuilt from the bitboards. */
     public Piece[][] getBoard() {
+        Piece[][] board = new Piece[SIZE][SIZE];
+        for (int sq = 0; sq < NB_SQUARES; sq++) {
+            long bit = 1L << sq;
+            for (int color = WHITE; color <= BLACK; color++) {
+                String name = color == BLACK ? "noir" : "blanc";
+                if ((licornes[color] & bit) != 0) board[sq / SIZE][sq % SIZE] = new Piece("licorne", name);
+                if ((paladins[color] & bit) != 0) board[sq / SIZE][sq % SIZE] = new Piece("paladin", name);
+            }
+        }
         return board;
     }
 }
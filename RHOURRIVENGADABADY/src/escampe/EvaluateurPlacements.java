@@ -0,0 +1,102 @@
+package escampe;
+
+/**
+ * Recherche du meilleur placement blanc en réponse à un placement noir.
+ *
+ * Les milliers de placements candidats sont d'abord tous notés par une
+ * recherche à un pli, qui suffit à écarter ceux qui laissent prendre une
+ * licorne ; seuls les mieux notés sont ensuite recherchés à la profondeur
+ * demandée. Sert hors ligne à {@link GenerateurLivre} et en partie à
+ * {@link JoueurIA} quand le placement noir n'est pas dans le livre.
+ */
+final class EvaluateurPlacements {
+    private final EscampeBoard board;
+    private final Recherche recherche;
+    private final int[] candidats = new int[Placement.COUNT];
+    private final int[] notes = new int[Placement.COUNT];
+    private int meilleurScore;
+    private int notees;  // candidats notés par la première passe
+
+    /** {@code board} : plateau où noir est déjà placé, modifié puis restauré à chaque note. */
+    EvaluateurPlacements(EscampeBoard board, TranspositionTable tt, Recherche.Controle controle) {
+        this.board     = board;
+        this.recherche = new Recherche(board, tt, controle, new OrdreCoups(), EscampeBoard.WHITE);
+    }
+
+    /**
+     * Meilleur placement blanc, ou -1 s'il n'y en a aucun. Si le temps est
+     * écoulé pendant la première passe, le meilleur des candidats notés avant
+     * l'échéance (le premier placement légal si aucun ne l'a été) ; pendant
+     * la seconde, le meilleur de la première.
+     *
+     * @param profondeur profondeur de la recherche des candidats retenus
+     * @param retenus    nombre de candidats recherchés à cette profondeur
+     */
+    int meilleureReponse(int profondeur, int retenus) {
+        int n = board.generatePlacements(EscampeBoard.WHITE, candidats);
+        if (n == 0) return -1;
+        // Après l'échéance, les notes ne valent plus rien : seuls comptent
+        // les candidats notés avant
+        notees = 0;
+        while (notees < n) {
+            int note = noter(candidats[notees], 1);
+            if (recherche.aborted) break;
+            notes[notees++] = note;
+        }
+        if (notees == 0) {
+            meilleurScore = 0;
+            return candidats[0];
+        }
+        n = notees;
+
+        // Les mieux notés en tête, par sélection partielle
+        retenus = Math.min(retenus, n);
+        for (int i = 0; i < retenus; i++) {
+            int best = i;
+            for (int j = i + 1; j < n; j++) {
+                if (notes[j] > notes[best]) best = j;
+            }
+            int c = candidats[i]; candidats[i] = candidats[best]; candidats[best] = c;
+            int s = notes[i];     notes[i] = notes[best];         notes[best] = s;
+        }
+
+        int meilleur = candidats[0];
+        meilleurScore = notes[0];
+        if (profondeur <= 1 || recherche.aborted) return meilleur;
+        int score = -Recherche.INF;
+        int coup = meilleur;
+        for (int i = 0; i < retenus; i++) {
+            int s = noter(candidats[i], profondeur);
+            if (recherche.aborted) return meilleur;
+            if (s > score) {
+                score = s;
+                coup = candidats[i];
+            }
+        }
+        meilleurScore = score;
+        return coup;
+    }
+
+    EscampeBoard board() {
+        return board;
+    }
+
+    /** Candidats notés par la première passe du dernier {@link #meilleureReponse}. */
+    int notesPremierePasse() {
+        return notees;
+    }
+
+    /** Score pour blanc de la dernière réponse trouvée par {@link #meilleureReponse}. */
+    int meilleurScore() {
+        return meilleurScore;
+    }
+
+    /** Score pour blanc, qui joue le premier coup, du placement blanc {@code placement}. */
+    private int noter(int placement, int profondeur) {
+        board.makePlacement(placement, EscampeBoard.WHITE);
+        recherche.ply = 0;
+        int score = recherche.minimaxValue(profondeur, true, -Recherche.INF, Recherche.INF);
+        board.unmakePlacement(placement, EscampeBoard.WHITE);
+        return score;
+    }
+}
@@ -0,0 +1,112 @@
+package escampe;
+
+import java.lang.management.ManagementFactory;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evénements Java Flight Recorder de la recherche, visibles dans un
+ * enregistrement à côté des pauses GC et des safepoints :
+ * java -XX:StartFlightRecording=filename=escampe.jfr ...
+ *
+ * Un événement désactivé ne coûte qu'une allocation que le JIT supprime ; les
+ * mesures chères (octets alloués) ne sont faites que si {@link Event#isEnabled}.
+ * Les octets alloués sont ceux du fil appelant : en recherche parallèle, les
+ * fils du pool ne sont pas comptés.
+ */
+final class EvenementsJfr {
+    private static final com.sun.management.ThreadMXBean THREADS =
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+            ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    private EvenementsJfr() {
+    }
+
+    /** Octets alloués jusqu'ici par le fil courant, ou 0 si la JVM ne les compte pas. */
+    static long octetsAlloues() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    @Name("escampe.Coup")
+    @Label("Coup")
+    @Category("Escampe")
+    @Description("Un appel à JoueurIA.choixMouvement")
+    @StackTrace(false)
+    static final class Coup extends Event {
+        @Label("Couleur")
+        String couleur;
+
+        @Label("Coup joué")
+        String coup;
+
+        @Label("Profondeur")
+        @Description("Dernière itération terminée, 0 pour un placement")
+        int profondeur;
+
+        @Label("Noeuds")
+        long noeuds;
+
+        @Label("Score")
+        int score;
+
+        @Label("Octets alloués")
+        @DataAmount
+        long octetsAlloues;
+    }
+
+    @Name("escampe.Iteration")
+    @Label("Itération")
+    @Category("Escampe")
+    @Description("Une itération de l'approfondissement itératif")
+    @StackTrace(false)
+    static final class Iteration extends Event {
+        @Label("Profondeur")
+        int profondeur;
+
+        @Label("Noeuds")
+        long noeuds;
+
+        @Label("Score")
+        int score;
+
+        @Label("Meilleur coup")
+        String coup;
+
+        @Label("Réflexion")
+        @Description("Vrai pendant la réflexion sur le temps adverse")
+        boolean reflexion;
+
+        @Label("Octets alloués")
+        @DataAmount
+        long octetsAlloues;
+    }
+
+    @Name("escampe.Generation")
+    @Label("Génération de coups")
+    @Category("Escampe")
+    @Description("Une rafale d'appels consécutifs à EscampeBoard.generateQuiets, par la recherche"
+                 + " ou possiblesMoves, échantillonnée")
+    @StackTrace(false)
+    static final class Generation extends Event {
+        /** Appels entre deux rafales mesurées. */
+        static final int ECHANTILLON = 4096;
+        /** Appels d'une rafale mesurée. */
+        static final int RAFALE = 256;
+
+        @Label("Appels")
+        int appels;
+
+        @Label("Coups générés")
+        long coups;
+
+        @Label("Octets alloués")
+        @DataAmount
+        long octetsAlloues;
+    }
+}
@@ -0,0 +1,84 @@
+package escampe;
+
+/**
+ * Générateur de coups par étapes pour un pli de la recherche : le coup de la
+ * table de transposition, joué sans rien générer, puis les prises de licorne,
+ * puis les coups tranquilles notés par {@link OrdreCoups}. Chaque étape n'est
+ * générée que si la précédente n'a pas provoqué de coupure, et les coups sont
+ * rendus un à un par {@link #next()}.
+ *
+ * Une instance par pli, réutilisée d'un noeud à l'autre : rien n'est alloué.
+ */
+final class GenerateurCoups {
+    private static final int STAGE_TT = 0, STAGE_GEN_CAPTURES = 1, STAGE_CAPTURES = 2,
+                             STAGE_GEN_QUIETS = 3, STAGE_QUIETS = 4, STAGE_PASS = 5,
+                             STAGE_DONE = 6;
+
+    private final OrdreCoups ordre;
+    private final int[] moves = new int[Move.MAX_MOVES];
+    private final int[] scores = new int[Move.MAX_MOVES];
+
+    private EscampeBoard board;
+    private int color, ttMove, ply;
+    private int stage, index, count;
+    private boolean played;
+
+    GenerateurCoups(OrdreCoups ordre) {
+        this.ordre = ordre;
+    }
+
+    void init(EscampeBoard board, int color, int ttMove, int ply) {
+        this.board  = board;
+        this.color  = color;
+        this.ttMove = ordre.actif ? ttMove : Move.NONE;
+        this.ply    = ply;
+        this.stage  = STAGE_TT;
+        this.played = false;
+    }
+
+    /** Coup suivant, ou {@link Move#NONE} quand il n'y en a plus. */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_TT:
+                    stage = STAGE_GEN_CAPTURES;
+                    if (ttMove != Move.NONE && board.isLegal(ttMove, color)) {
+                        // Une passe n'est légale que s'il n'y a rien d'autre
+                        if (Move.isPass(ttMove)) stage = STAGE_DONE;
+                        played = true;
+                        return ttMove;
+                    }
+                    break;
+                case STAGE_GEN_CAPTURES:
+                    count = board.generateCaptures(color, moves, 0);
+                    index = 0;
+                    stage = STAGE_CAPTURES;
+                    break;
+                case STAGE_CAPTURES:
+                case STAGE_QUIETS:
+                    while (index < count) {
+                        if (stage == STAGE_QUIETS && ordre.actif) OrdreCoups.pickNext(moves, scores, count, index);
+                        int move = moves[index++];
+                        if (move != ttMove) {
+                            played = true;
+                            return move;
+                        }
+                    }
+                    stage = stage == STAGE_CAPTURES ? STAGE_GEN_QUIETS : STAGE_PASS;
+                    break;
+                case STAGE_GEN_QUIETS:
+                    count = board.generateQuiets(color, moves, 0);
+                    index = 0;
+                    if (ordre.actif) ordre.score(moves, scores, count, color, ttMove, ply);
+                    stage = STAGE_QUIETS;
+                    break;
+                case STAGE_PASS:
+                    stage = STAGE_DONE;
+                    if (!played) return Move.PASS;
+                    break;
+                default:
+                    return Move.NONE;
+            }
+        }
+    }
+}
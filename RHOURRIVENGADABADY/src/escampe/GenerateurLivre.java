@@ -0,0 +1,69 @@
+package escampe;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Construction hors ligne du {@link LivreOuvertures}.
+ *
+ * Chaque placement noir est joué, puis toutes les réponses blanches sont
+ * notées par {@link EvaluateurPlacements} ; la meilleure est gardée avec son
+ * score. Le placement noir du livre est celui dont la meilleure réponse
+ * blanche est la plus faible. Les placements noirs sont répartis entre les
+ * fils d'un ForkJoinPool, chacun avec son plateau et sa table.
+ *
+ * Usage : java escampe.GenerateurLivre [fichier] [profondeur] [retenus] [fils]
+ */
+public class GenerateurLivre {
+    public static void main(String[] args) throws Exception {
+        String fichier = args.length > 0 ? args[0] : LivreOuvertures.RESSOURCE;
+        int profondeur  = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int retenus     = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int fils        = args.length > 3 ? Integer.parseInt(args[3])
+                                          : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        LivreOuvertures livre = construire(profondeur, retenus, fils);
+        try (OutputStream out = new FileOutputStream(fichier)) {
+            livre.ecrire(out);
+        }
+        System.out.println("Livre écrit dans " + fichier + " en "
+                           + (System.nanoTime() - start) / 1_000_000_000 + " s ; placement noir "
+                           + Placement.toString(livre.placementNoir()));
+    }
+
+    static LivreOuvertures construire(int profondeur, int retenus, int fils)
+            throws InterruptedException, ExecutionException {
+        short[] reponses = new short[Placement.COUNT];
+        int[] scores = new int[Placement.COUNT];
+        AtomicInteger faits = new AtomicInteger();
+        Recherche.Controle sansLimite = new Recherche.Controle(Long.MAX_VALUE);
+        ThreadLocal<EvaluateurPlacements> evaluateurs = ThreadLocal.withInitial(() ->
+            new EvaluateurPlacements(new EscampeBoard(), new TranspositionTable(16), sansLimite));
+        ForkJoinPool pool = new ForkJoinPool(fils);
+        try {
+            pool.submit(() -> IntStream.range(0, Placement.COUNT).parallel().forEach(noir -> {
+                EvaluateurPlacements e = evaluateurs.get();
+                e.board().makePlacement(noir, EscampeBoard.BLACK);
+                reponses[noir] = (short) e.meilleureReponse(profondeur, retenus);
+                scores[noir] = e.meilleurScore();
+                e.board().unmakePlacement(noir, EscampeBoard.BLACK);
+                int n = faits.incrementAndGet();
+                if (n % 500 == 0) System.err.println(n + "/" + Placement.COUNT);
+            })).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        int noir = 0;
+        for (int i = 1; i < Placement.COUNT; i++) {
+            if (scores[i] < scores[noir]) noir = i;
+        }
+        return new LivreOuvertures(profondeur, noir, reponses);
+    }
+}
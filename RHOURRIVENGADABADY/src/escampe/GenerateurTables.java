@@ -0,0 +1,145 @@
+package escampe;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Construction hors ligne des {@link TablesFinales} par analyse rétrograde.
+ *
+ * Les distances sont fixées par passes successives : la passe k attribue
+ * « gain en k » aux positions qui ont une suite perdue en k - 1 (en 1 : une
+ * prise de licorne), et « perte en k » à celles dont toutes les suites sont
+ * gagnées en moins de k. Une passe ne lit que des valeurs des passes
+ * précédentes, si bien que les fils du ForkJoinPool peuvent se partager les
+ * positions sans synchronisation. Le calcul s'arrête à la première passe qui
+ * ne change rien ; ce qui reste est nul.
+ *
+ * Usage : java escampe.GenerateurTables [dossier] [pièces max] [fils]
+ */
+public class GenerateurTables {
+    private static final int NB = EscampeBoard.NB_SQUARES;
+
+    public static void main(String[] args) throws Exception {
+        File dossier = new File(args.length > 0 ? args[0] : ".");
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int fils      = args.length > 2 ? Integer.parseInt(args[2])
+                                        : Runtime.getRuntime().availableProcessors();
+        dossier.mkdirs();
+        ForkJoinPool pool = new ForkJoinPool(fils);
+        try {
+            for (int pb = 0; pb <= TablesFinales.MAX_PALADINS; pb++) {
+                for (int pn = 0; 2 + pb + pn <= maxPieces && pn <= TablesFinales.MAX_PALADINS; pn++) {
+                    long start = System.nanoTime();
+                    byte[] t = construire(pool, pb, pn);
+                    ecrire(TablesFinales.fichier(dossier, pb, pn), pb, pn, t);
+                    System.out.println("finale " + pb + "/" + pn + " : " + t.length + " positions en "
+                                       + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static byte[] construire(ForkJoinPool pool, int pb, int pn)
+            throws InterruptedException, ExecutionException {
+        byte[] t = new byte[TablesFinales.taille(pb, pn)];
+        for (int k = 1; k <= Byte.MAX_VALUE; k++) {
+            final int passe = k;
+            AtomicBoolean change = new AtomicBoolean();
+            pool.submit(() -> IntStream.range(0, NB * NB).parallel().forEach(licornes -> {
+                if (passe(t, passe, pb, pn, licornes / NB, licornes % NB)) change.set(true);
+            })).get();
+            if (!change.get()) break;
+        }
+        return t;
+    }
+
+    /** Passe {@code k} sur les positions où les licornes sont en licB et licN. */
+    private static boolean passe(byte[] t, int k, int pb, int pn, int licB, int licN) {
+        if (licB == licN) return false;
+        long[] lic = {1L << licB, 1L << licN};
+        long[] pal = new long[2];
+        boolean change = false;
+        for (long palB : TablesFinales.COMBINAISONS[pb]) {
+            if ((palB & (lic[0] | lic[1])) != 0) continue;
+            for (long palN : TablesFinales.COMBINAISONS[pn]) {
+                if ((palN & (lic[0] | lic[1] | palB)) != 0) continue;
+                pal[0] = palB;
+                pal[1] = palN;
+                for (int trait = 0; trait < 2; trait++) {
+                    for (int contrainte = 0; contrainte < 4; contrainte++) {
+                        int i = TablesFinales.index(pb, pn, licB, licN, palB, palN, trait, contrainte);
+                        if (t[i] != 0) continue;
+                        int v = resoudre(t, k, pb, pn, lic, pal, trait, contrainte);
+                        if (v != 0) {
+                            t[i] = (byte) v;
+                            change = true;
+                        }
+                    }
+                }
+            }
+        }
+        return change;
+    }
+
+    /** Valeur de la position si elle se décide à la passe k : k, -k, ou 0. */
+    private static int resoudre(byte[] t, int k, int pb, int pn, long[] lic, long[] pal,
+                                int trait, int contrainte) {
+        int adv = trait ^ 1;
+        long occ = lic[0] | lic[1] | pal[0] | pal[1];
+        long movers = lic[trait] | pal[trait];
+        if (contrainte != 0) movers &= EscampeBoard.LISERE_MASK[contrainte];
+
+        boolean aucunCoup = true, toutesGagnees = true;
+        for (long bb = movers; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            boolean paladin = (pal[trait] & (1L << from)) != 0;
+            long dests = EscampeBoard.destinations(from, occ, paladin ? lic[adv] : 0);
+            if (dests == 0) continue;
+            aucunCoup = false;
+            // Une prise se voit dès la passe 1
+            if ((dests & lic[adv]) != 0) return k == 1 ? 1 : 0;
+            if (k == 1) continue;
+            long[] pieces = paladin ? pal : lic;
+            for (; dests != 0; dests &= dests - 1) {
+                int to = Long.numberOfTrailingZeros(dests);
+                pieces[trait] ^= 1L << from | 1L << to;
+                int v = suite(t, pb, pn, lic, pal, adv, EscampeBoard.LISERE[to]);
+                pieces[trait] ^= 1L << from | 1L << to;
+                if (v == -(k - 1)) return k;
+                if (v <= 0 || v >= k) toutesGagnees = false;
+            }
+        }
+        if (k == 1) return 0;
+        if (aucunCoup) {
+            // Passe forcée : l'adversaire joue sans contrainte
+            int v = suite(t, pb, pn, lic, pal, adv, 0);
+            if (v == -(k - 1)) return k;
+            toutesGagnees = v > 0 && v < k;
+        }
+        return toutesGagnees ? -k : 0;
+    }
+
+    private static int suite(byte[] t, int pb, int pn, long[] lic, long[] pal, int trait, int contrainte) {
+        return t[TablesFinales.index(pb, pn, Long.numberOfTrailingZeros(lic[0]),
+                                     Long.numberOfTrailingZeros(lic[1]), pal[0], pal[1],
+                                     trait, contrainte)];
+    }
+
+    private static void ecrire(File f, int pb, int pn, byte[] t) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+            out.writeInt(TablesFinales.MAGIC);
+            out.writeInt(pb);
+            out.writeInt(pn);
+            out.write(t);
+        }
+    }
+}
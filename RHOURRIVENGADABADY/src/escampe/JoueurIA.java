@@ -1,27 +1,175 @@
 package escampe;
 
-import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
- * IA Escampe avec Minimax récursif et élagage alpha-beta,
- * sans modifier les autres fichiers. Utilise un test terminal
- * interne plutôt que board.isGameOver().
+ * IA Escampe avec Minimax récursif et élagage alpha-beta.
+ * La recherche joue et déjoue les coups en mémoire (makeMove/unmakeMove)
+ * et utilise un test terminal interne plutôt que board.gameOver().
  */
 public class JoueurIA implements IJoueur {
     private int myColour;              // IJoueur.BLANC or IJoueur.NOIR
     private EscampeBoard board;
     private boolean ouvertureNoir;
     private boolean ouvertureBlanc;
+    private int placementNoirAdverse = -1;   // index Placement, -1 si hors des rangées de départ
     private final Random rand = new Random();
-    private static final int MAX_DEPTH = 4;  // Profondeur ajustable
+    private static final int MAX_DEPTH = 64;  // Borne de l'approfondissement itératif
+    // Fenêtre d'aspiration autour du score de l'itération précédente, à partir
+    // de ASPIRATION_DEPTH ; elle double à chaque échec
+    private static final int ASPIRATION_DEPTH = 4;
+    private static final int ASPIRATION = 2 * Recherche.MOBILITE;
+    private int profondeurMax = MAX_DEPTH;
+    // Temps de réflexion par coup (ms), -Descampe.tempsMs=...
+    private long tempsParCoup = Long.getLong("escampe.tempsMs", 1000);
+    // Instant (System.nanoTime) d'où compter le prochain coup, 0 pour l'appel
+    private long debutCoup;
+    // Budget mémoire de la table de transposition (Mo), -Descampe.hashMo=...
+    private static final int HASH_MO = Integer.getInteger("escampe.hashMo", 32);
+    private TranspositionTable tt;
+    // Nombre de fils de recherche, -Descampe.threads=... (1 = séquentiel)
+    private int threads = Integer.getInteger("escampe.threads", 1);
+    // Mode parallèle, -Descampe.parallele=ybwc|smp
+    public static final String YBWC = "ybwc";
+    public static final String LAZY_SMP = "smp";
+    private String modeParallele = System.getProperty("escampe.parallele", YBWC);
+    // Pools partagés par les joueurs de la JVM, un par parallélisme : deux
+    // joueurs aux nombres de fils différents ne se gênent pas, et un pool
+    // n'est jamais arrêté sous une recherche (ses fils sont des démons)
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    // Tables d'ordonnancement du fil principal (indice 0) et des fils auxiliaires
+    // du Lazy SMP, conservées d'un coup à l'autre ; la réflexion a les siennes
+    private OrdreCoups[] ordres = { new OrdreCoups() };
+    private OrdreCoups[] ordresReflexion = new OrdreCoups[0];
+    // Profondeur atteinte pour le dernier coup joué, lue par d'autres fils
+    private volatile int completedDepth;
+    // Bilan de la recherche du dernier coup joué
+    private Telemetrie telemetrie;
+
+    // Réflexion sur le temps adverse, -Descampe.ponder=true
+    private boolean reflechirSurTempsAdverse = Boolean.getBoolean("escampe.ponder");
+    private Thread reflexion;
+    private Recherche.Controle controleReflexion;
+    // Position après la réponse prévue, et résultat de la réflexion sur celle-ci
+    private long cleReflexion;
+    private int coupReflexion = Move.NONE;
+    private int profondeurReflexion;
+    private boolean reflexionReussie;
+    private int reflexionsReussies;
+
+    // Livre d'ouvertures, chargé une fois pour toutes les parties de la JVM (null si absent)
+    private static final LivreOuvertures LIVRE = LivreOuvertures.charger();
+    // Placement noir choisi par GenerateurLivre, joué quand le livre est absent
+    private static final String PLACEMENT_NOIR_DEFAUT = "B1/A1/C1/D1/E1/A2";
+    // Profondeur et nombre de candidats de la recherche d'un placement blanc hors livre
+    private static final int PROFONDEUR_PLACEMENT = 3;
+    private static final int CANDIDATS_PLACEMENT = 8;
+
+    /**
+     * Etat d'un approfondissement itératif. Le coup à jouer et la réflexion sur
+     * le temps adverse, qui tourne dans son propre fil, ont chacun le leur : la
+     * réflexion ne touche ni à la profondeur du dernier coup ni au score qui
+     * centre la fenêtre d'aspiration.
+     */
+    private static final class Approfondissement {
+        final Recherche.Controle controle;
+        final OrdreCoups[] ordres;
+        int completedDepth;
+        // Score du coup rendu par la dernière itération terminée
+        int scoreIteration;
+
+        Approfondissement(Recherche.Controle controle, OrdreCoups[] ordres) {
+            this.controle = controle;
+            this.ordres   = ordres;
+        }
+    }
 
     @Override
     public void initJoueur(int mycolour) {
+        arreterReflexion();
         this.myColour       = mycolour;
         this.board          = new EscampeBoard();
         this.ouvertureNoir  = true;
         this.ouvertureBlanc = true;
+        this.placementNoirAdverse = -1;
+        this.tt             = new TranspositionTable(HASH_MO);
+        this.telemetrie     = null;
+        this.reflexionReussie   = false;
+        this.reflexionsReussies = 0;
+    }
+
+    /** Fixe le temps de réflexion par coup, en millisecondes. */
+    public void setTempsParCoup(long ms) {
+        this.tempsParCoup = ms;
+    }
+
+    /**
+     * Compte le temps du prochain coup depuis {@code nanoTime} (valeur de
+     * System.nanoTime) plutôt que depuis l'appel à choixMouvement : la demande
+     * a pu attendre un fil libre pendant que la pendule de l'arbitre tournait.
+     */
+    public void setDebutCoup(long nanoTime) {
+        this.debutCoup = nanoTime;
+    }
+
+    /** Fixe le nombre de fils de recherche ; au-delà de 1, la recherche est parallèle. */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Choisit le mode parallèle : {@link #YBWC} découpe l'arbre entre les fils,
+     * {@link #LAZY_SMP} lance des fils auxiliaires qui ne communiquent que par la
+     * table de transposition.
+     */
+    public void setModeParallele(String mode) {
+        this.modeParallele = mode;
+    }
+
+    /** Active la réflexion sur le temps adverse, entre deux coups. */
+    public void setPonder(boolean ponder) {
+        this.reflechirSurTempsAdverse = ponder;
+    }
+
+    /** Borne la profondeur de recherche, pour jouer ou mesurer à profondeur fixe. */
+    public void setProfondeurMax(int profondeur) {
+        this.profondeurMax = Math.min(profondeur, MAX_DEPTH);
+    }
+
+    /**
+     * Reprend la partie à la position {@code position}, placements faits, avec
+     * une table de transposition vide ; sert aux bancs d'essai.
+     */
+    void positionner(EscampeBoard position) {
+        arreterReflexion();
+        this.board          = new EscampeBoard(position);
+        this.ouvertureNoir  = false;
+        this.ouvertureBlanc = false;
+        this.reflexionReussie = false;
+        tt.clear();
+    }
+
+    /** Nombre de coups adverses prévus par la réflexion depuis le début de la partie. */
+    public int getReflexionsReussies() {
+        return reflexionsReussies;
+    }
+
+    /** Bilan de la recherche du dernier coup, null avant le premier coup cherché. */
+    Telemetrie getTelemetrie() {
+        return telemetrie;
+    }
+
+    /** Profondeur de la dernière itération terminée lors du dernier coup. */
+    public int getCompletedDepth() {
+        return completedDepth;
     }
 
     @Override
@@ -31,163 +179,384 @@ public class JoueurIA implements IJoueur {
 
     @Override
     public String choixMouvement() {
+        EvenementsJfr.Coup evenement = new EvenementsJfr.Coup();
+        long octets = evenement.isEnabled() ? EvenementsJfr.octetsAlloues() : 0;
+        evenement.begin();
+        String coup = jouerCoup();
+        if (evenement.shouldCommit()) {
+            // Les placements précèdent toute recherche : pas encore de télémétrie
+            Telemetrie t = telemetrie;
+            evenement.couleur       = myColour == IJoueur.NOIR ? "noir" : "blanc";
+            evenement.coup          = coup;
+            evenement.profondeur    = t != null ? t.profondeur() : 0;
+            evenement.noeuds        = t != null ? t.total().noeuds : 0;
+            evenement.score         = t != null ? t.score() : 0;
+            evenement.octetsAlloues = EvenementsJfr.octetsAlloues() - octets;
+            evenement.commit();
+        }
+        return coup;
+    }
+
+    private String jouerCoup() {
         String me  = (myColour == IJoueur.NOIR) ? "noir" : "blanc";
+        // Le début fixé par setDebutCoup ne vaut que pour ce coup
+        long debut = debutCoup != 0 ? debutCoup : System.nanoTime();
+        debutCoup = 0;
 
         // --- Phase d'ouverture ---
         if (myColour == IJoueur.NOIR && ouvertureNoir) {
             ouvertureNoir = false;
-            String move = "C6/A6/B5/D5/E6/F5";
+            String move = placementNoir();
             board.play(move, me);
             return move;
         }
         if (myColour == IJoueur.BLANC && ouvertureBlanc) {
             ouvertureBlanc = false;
-            String move = "C1/A3/C2/C5/F1/F4";
+            String move = placementBlanc(debut);
             board.play(move, me);
             return move;
         }
 
         // --- Recherche Minimax récursif avec alpha-beta ---
-        String bestMove = minimax(MAX_DEPTH);
+        String bestMove = iterativeDeepening(debut);
         board.play(bestMove, me);
+        if (Telemetrie.active()) Telemetrie.ecrire(telemetrie.json(me, bestMove));
+        demarrerReflexion();
         return bestMove;
     }
 
+    private String placementBlanc(long debut) {
+        return placementBlanc(board, placementNoirAdverse, tt,
+                              new Recherche.Controle(debut + tempsParCoup * 1_000_000L));
+    }
+
+    /** Placement noir du livre, ou celui par défaut ; sert aussi à {@link JoueurMCTS}. */
+    static String placementNoir() {
+        return LIVRE != null ? Placement.toString(LIVRE.placementNoir()) : PLACEMENT_NOIR_DEFAUT;
+    }
+
     /**
-     * Pilote Minimax : teste chaque coup racine et renvoie le meilleur.
+     * Réponse blanche au placement noir {@code placementNoir} (index
+     * {@link Placement}, -1 s'il n'est pas dans le livre), déjà sur {@code board} :
+     * lue dans le livre, sinon cherchée jusqu'à l'arrêt de {@code controle},
+     * sinon les premières cases libres si noir n'a laissé aucun côté
+     * entièrement vide.
      */
-    private String minimax(int depth) {
-        String me  = (myColour == IJoueur.NOIR) ? "noir" : "blanc";
-        String opp = (myColour == IJoueur.NOIR) ? "blanc" : "noir";
+    static String placementBlanc(EscampeBoard board, int placementNoir, TranspositionTable tt,
+                                 Recherche.Controle controle) {
+        int livre = LIVRE != null ? LIVRE.reponseBlanc(placementNoir) : -1;
+        if (livre >= 0) return Placement.toString(livre);
+
+        EvaluateurPlacements e = new EvaluateurPlacements(new EscampeBoard(board), tt, controle);
+        int reponse = e.meilleureReponse(PROFONDEUR_PLACEMENT, CANDIDATS_PLACEMENT);
+        if (reponse >= 0) return Placement.toString(reponse);
 
-        String[] myMoves = board.possiblesMoves(me);
-        if (myMoves.length == 1 && "E".equals(myMoves[0])) {
-            return "E";
+        StringBuilder move = new StringBuilder();
+        long libres = ~board.occupied() & ((1L << EscampeBoard.NB_SQUARES) - 1);
+        for (int i = 0; i < 6; i++, libres &= libres - 1) {
+            if (i > 0) move.append('/');
+            move.append(Move.squareName(Long.numberOfTrailingZeros(libres)));
         }
+        return move.toString();
+    }
 
-        double bestScore = Double.NEGATIVE_INFINITY;
-        String bestMove = myMoves[rand.nextInt(myMoves.length)];
+    /**
+     * Approfondissement itératif dans le temps d'un coup. Si la réflexion sur
+     * le temps adverse avait prévu le coup joué, on repart de la profondeur
+     * qu'elle a atteinte et de son meilleur coup.
+     */
+    private String iterativeDeepening(long start) {
+        int firstDepth = 1, firstBest = Move.NONE;
+        if (reflexionReussie) {
+            firstDepth = profondeurReflexion + 1;
+            firstBest  = coupReflexion;
+            reflexionReussie = false;
+        }
+        ordres = ordres(ordres);
+        Approfondissement a = new Approfondissement(
+                new Recherche.Controle(start + tempsParCoup * 1_000_000L), ordres);
+        Telemetrie t = new Telemetrie();
+        int best = approfondir(a, firstDepth, firstBest, t);
+        t.terminer(a.controle.total());
+        telemetrie = t;
+        completedDepth = a.completedDepth;
+        return Move.toString(best);
+    }
 
-        try {
-            File snapshot = File.createTempFile("escampe_init_", ".tmp");
-            board.saveToFile(snapshot.getAbsolutePath());
-
-            for (String move : myMoves) {
-                board.play(move, me);
-                double score = minimaxValue(depth - 1, false,
-                                            Double.NEGATIVE_INFINITY,
-                                            Double.POSITIVE_INFINITY,
-                                            me, opp);
-                board.setFromFile(snapshot.getAbsolutePath());
-
-                if (score > bestScore) {
-                    bestScore = score;
-                    bestMove  = move;
-                }
+    /**
+     * Cherche à profondeur firstDepth, firstDepth + 1... jusqu'à l'arrêt de
+     * {@code a.controle} et renvoie le meilleur coup de la dernière itération
+     * terminée (ou {@code firstBest}, déjà cherché à firstDepth - 1). Chaque
+     * itération terminée est notée dans {@code t}, s'il n'est pas null.
+     * L'aspiration n'est tentée qu'à partir de la deuxième itération, autour
+     * d'un score trouvé par cet approfondissement.
+     */
+    private int approfondir(Approfondissement a, int firstDepth, int firstBest, Telemetrie t) {
+        long start = System.nanoTime();
+        Recherche.Controle controle = a.controle;
+        a.completedDepth = firstDepth - 1;
+        tt.newSearch();
+
+        int[] buf = new int[Move.MAX_MOVES];
+        int[] myMoves = Arrays.copyOf(buf, board.generateMoves(myColor(), buf));
+        if (myMoves.length == 1) {
+            return myMoves[0];
+        }
+
+        List<Future<?>> helpers = new ArrayList<>();
+        if (threads > 1 && LAZY_SMP.equals(modeParallele)) {
+            for (int i = 1; i < threads; i++) {
+                final int index = i;
+                final EscampeBoard copy = new EscampeBoard(board);
+                final int[] moves = myMoves.clone();
+                helpers.add(pool(threads).submit(() -> helper(a, index, copy, moves)));
             }
-            snapshot.delete();
-        } catch (Exception e) {
-            bestMove = myMoves[rand.nextInt(myMoves.length)];
         }
 
+        int bestMove = myMoves[rand.nextInt(myMoves.length)];
+        if (firstBest != Move.NONE && board.isLegal(firstBest, myColor())) bestMove = firstBest;
+        for (int depth = firstDepth; depth <= profondeurMax; depth++) {
+            EvenementsJfr.Iteration evenement = new EvenementsJfr.Iteration();
+            long octets = 0, noeuds = 0;
+            if (evenement.isEnabled()) {
+                octets = EvenementsJfr.octetsAlloues();
+                noeuds = controle.total().noeuds;
+            }
+            evenement.begin();
+            int move = minimax(a, depth, myMoves, bestMove, depth > firstDepth);
+            if (controle.stopped) break;
+            bestMove = move;
+            a.completedDepth = depth;
+            if (t != null) t.iteration(depth, controle.total().noeuds, a.scoreIteration);
+            if (evenement.shouldCommit()) {
+                evenement.profondeur    = depth;
+                evenement.noeuds        = controle.total().noeuds - noeuds;
+                evenement.score         = a.scoreIteration;
+                evenement.coup          = Move.toString(move);
+                evenement.reflexion     = t == null;
+                evenement.octetsAlloues = EvenementsJfr.octetsAlloues() - octets;
+                evenement.commit();
+            }
+            // Une itération coûte plus que toutes les précédentes : inutile de
+            // lancer la suivante si plus de la moitié du temps est écoulée. La
+            // réflexion, sans échéance (Long.MAX_VALUE), ne s'arrête que sur ordre
+            if (controle.deadline != Long.MAX_VALUE
+                    && System.nanoTime() - start > (controle.deadline - start) / 2) break;
+        }
+
+        controle.stopped = true;
+        for (Future<?> f : helpers) {
+            try {
+                f.get();
+            } catch (Exception e) {
+                // un fil auxiliaire n'a fait que remplir la table
+            }
+        }
         return bestMove;
     }
 
     /**
-     * Minimax récursif avec élagage alpha-beta.
+     * Réflexion sur le temps adverse : un fil joue sur le plateau la réponse
+     * adverse prévue et y cherche notre coup suivant, sans échéance, jusqu'à
+     * l'arrivée du vrai coup. Le plateau ne sert à rien d'autre pendant ce temps.
      */
-    private double minimaxValue(int depth,
-                                boolean isMaximizing,
-                                double alpha,
-                                double beta,
-                                String player,
-                                String opponent) throws Exception {
-        // Test terminal interne
-        if (depth == 0 || isTerminal(player, opponent)) {
-            return evaluateBoard(player, opponent);
-        }
-
-        String[] moves = board.possiblesMoves(isMaximizing ? player : opponent);
-        if (moves.length == 0) {
-            return evaluateBoard(player, opponent);
-        }
-
-        File snapshot = File.createTempFile("escampe_", ".tmp");
-        board.saveToFile(snapshot.getAbsolutePath());
-
-        double best = isMaximizing ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
-        for (String move : moves) {
-            board.play(move, isMaximizing ? player : opponent);
-            double val = minimaxValue(depth - 1,
-                                      !isMaximizing,
-                                      alpha, beta,
-                                      player, opponent);
-            board.setFromFile(snapshot.getAbsolutePath());
-
-            if (isMaximizing) {
-                best = Math.max(best, val);
-                alpha = Math.max(alpha, val);
-            } else {
-                best = Math.min(best, val);
-                beta  = Math.min(beta, val);
-            }
-            if (beta <= alpha) break;
+    private void demarrerReflexion() {
+        if (!reflechirSurTempsAdverse || board.gameOver()) return;
+        int adv = myColor() ^ 1;
+        int prevu = reponsePrevue(adv);
+        ordresReflexion = ordres(ordresReflexion);
+        Approfondissement a = new Approfondissement(new Recherche.Controle(Long.MAX_VALUE), ordresReflexion);
+        controleReflexion = a.controle;
+        coupReflexion = Move.NONE;
+        reflexion = new Thread(() -> {
+            board.makeMove(prevu, adv);
+            cleReflexion = board.hashKey();
+            int best = approfondir(a, 1, Move.NONE, null);
+            profondeurReflexion = a.completedDepth;
+            coupReflexion = best;
+            board.unmakeMove(prevu);
+        }, "escampe-reflexion");
+        reflexion.setDaemon(true);
+        reflexion.start();
+    }
+
+    /** Arrête la réflexion en cours et attend que le plateau soit restauré. */
+    private void arreterReflexion() {
+        if (reflexion == null) return;
+        controleReflexion.stopped = true;
+        try {
+            reflexion.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reflexion = null;
+    }
+
+    /**
+     * Réponse adverse la plus probable : le coup de la table de transposition,
+     * remplie par notre propre recherche, sinon celui d'une courte recherche.
+     */
+    private int reponsePrevue(int adv) {
+        TranspositionTable.Hit hit = new TranspositionTable.Hit();
+        if (tt.probe(board.hashKey(), 0, hit) && board.isLegal(hit.move, adv)) return hit.move;
+        Recherche r = new Recherche(board, tt, new Recherche.Controle(Long.MAX_VALUE), ordres[0], myColor());
+        r.minimaxValue(2, false, -Recherche.INF, Recherche.INF);
+        if (tt.probe(board.hashKey(), 0, hit) && board.isLegal(hit.move, adv)) return hit.move;
+        int[] buf = new int[Move.MAX_MOVES];
+        board.generateMoves(adv, buf);
+        return buf[0];
+    }
+
+    /**
+     * Fil auxiliaire du Lazy SMP : même approfondissement itératif que le fil
+     * principal, sur sa copie du plateau, avec les coups racine dans un autre
+     * ordre et une profondeur décalée d'un pli sur deux fils. Son seul effet est
+     * de remplir la table de transposition partagée.
+     */
+    private void helper(Approfondissement a, int index, EscampeBoard copy, int[] moves) {
+        int[] rotated = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) rotated[(i + index) % moves.length] = moves[i];
+        moves = rotated;
+        int best = moves[0];
+        for (int depth = 1 + (index & 1); depth <= profondeurMax && !a.controle.stopped; depth++) {
+            Recherche r = new Recherche(copy, tt, a.controle, a.ordres[index], myColor());
+            int move = rootSearch(r, depth, moves, -Recherche.INF, Recherche.INF);
+            if (r.aborted) break;
+            best = move;
+            moveFirst(moves, best);
         }
-        snapshot.delete();
+    }
+
+    /**
+     * Pilote Minimax : teste chaque coup racine (le meilleur de l'itération
+     * précédente en premier) et renvoie le meilleur. Avec {@code aspiration},
+     * la recherche séquentielle part d'une fenêtre étroite autour du score de
+     * l'itération précédente et ne l'élargit que si le score en sort.
+     */
+    private int minimax(Approfondissement a, int depth, int[] myMoves, int previousBest, boolean aspiration) {
+        moveFirst(myMoves, previousBest);
+
+        if (threads > 1 && YBWC.equals(modeParallele)) {
+            NoeudParallele root = new NoeudParallele(new EscampeBoard(board), myMoves, depth,
+                                                     -Recherche.INF, tt, a.controle, myColor());
+            pool(threads).invoke(root);
+            a.scoreIteration = root.getValue();
+            return root.isAborted() ? myMoves[0] : root.getBestMove();
+        }
+
+        Recherche r = new Recherche(board, tt, a.controle, a.ordres[0], myColor());
+        int alpha = -Recherche.INF, beta = Recherche.INF;
+        // Pas de fenêtre autour d'un score de gain ou de perte : il change d'un pli à l'autre
+        if (aspiration && depth >= ASPIRATION_DEPTH && Math.abs(a.scoreIteration) < Recherche.WIN - OrdreCoups.MAX_PLY) {
+            alpha = a.scoreIteration - ASPIRATION;
+            beta  = a.scoreIteration + ASPIRATION;
+        }
+        int best = aspirationSearch(r, depth, myMoves, alpha, beta);
+        if (!r.aborted) a.scoreIteration = r.rootScore;
         return best;
     }
 
     /**
-     * Test terminal: double passe ou plus de pièces pour un joueur.
+     * Cherche la racine avec {@code r} dans la fenêtre (alpha, beta) et,
+     * tant que le score en sort, recommence avec la fenêtre élargie du côté
+     * de l'échec, d'un pas qui double à chaque fois. Renvoie le meilleur coup ;
+     * son score exact est dans {@code r.rootScore}, sauf arrêt de la recherche.
      */
-    private boolean isTerminal(String player, String opponent) {
-        String[] pMoves = board.possiblesMoves(player);
-        String[] oMoves = board.possiblesMoves(opponent);
-        // double passe
-        if (pMoves.length == 1 && "E".equals(pMoves[0])
-         && oMoves.length == 1 && "E".equals(oMoves[0])) {
-            return true;
-        }
-        // plus de pièces
-        int countP = 0, countO = 0;
-        for (Piece[] row : board.getBoard()) {
-            for (Piece pc : row) {
-                if (pc != null) {
-                    if (pc.color.equals(player)) countP++;
-                    else                           countO++;
-                }
+    static int aspirationSearch(Recherche r, int depth, int[] myMoves, int alpha, int beta) {
+        int delta = ASPIRATION;
+        while (true) {
+            int best = rootSearch(r, depth, myMoves, alpha, beta);
+            if (r.aborted) return best;
+            int score = r.rootScore;
+            if (score <= alpha) {
+                alpha = Math.max(-Recherche.INF, alpha - delta);
+            } else if (score >= beta) {
+                beta = Math.min(Recherche.INF, beta + delta);
+                moveFirst(myMoves, best);
+            } else {
+                return best;
             }
+            delta *= 2;
         }
-        return (countP == 0 || countO == 0);
     }
 
     /**
-     * Heuristique : mobilité + petit bonus matériel.
+     * Cherche chaque coup racine avec {@code r} dans la fenêtre (alpha, beta),
+     * en PVS comme {@link Recherche#minimaxValue}, et renvoie le meilleur ; son
+     * score, qui n'est qu'une borne s'il sort de la fenêtre, est laissé dans
+     * {@code r.rootScore}.
      */
-    private double evaluateBoard(String me, String opp) {
-        double mobility = board.possiblesMoves(me).length
-                        - board.possiblesMoves(opp).length;
-        int myCount = 0, oppCount = 0;
-        for (Piece[] row : board.getBoard()) {
-            for (Piece p : row) {
-                if (p != null) {
-                    if (p.color.equals(me)) myCount++;
-                    else                      oppCount++;
-                }
+    static int rootSearch(Recherche r, int depth, int[] myMoves, int alpha, int beta) {
+        int bestScore = -Recherche.INF;
+        int bestMove = myMoves[0];
+
+        for (int i = 0; i < myMoves.length; i++) {
+            int move = myMoves[i];
+            int a = Math.max(alpha, bestScore);
+            r.board.makeMove(move, r.myColor);
+            r.ply = 1;
+            int score;
+            if (i == 0) {
+                score = r.minimaxValue(depth - 1, false, a, beta);
+            } else {
+                score = r.minimaxValue(depth - 1, false, a, a + 1);
+                if (score > a && score < beta && !r.aborted) score = r.minimaxValue(depth - 1, false, a, beta);
+            }
+            r.board.unmakeMove(move);
+            if (r.aborted) break;
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove  = move;
             }
+            if (bestScore >= beta) break;
         }
-        double material = 0.1 * (myCount - oppCount);
-        return mobility + material;
+        r.rootScore = bestScore;
+
+        return bestMove;
+    }
+
+    private int myColor() {
+        return myColour == IJoueur.NOIR ? EscampeBoard.BLACK : EscampeBoard.WHITE;
+    }
+
+    private static void moveFirst(int[] moves, int move) {
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /** {@code o}, complété au besoin d'une table par fil de recherche. */
+    private OrdreCoups[] ordres(OrdreCoups[] o) {
+        int n = Math.max(1, threads);
+        if (o.length >= n) return o;
+        OrdreCoups[] r = Arrays.copyOf(o, n);
+        for (int i = o.length; i < n; i++) r[i] = new OrdreCoups();
+        return r;
+    }
+
+    /** Pool des joueurs à {@code parallelism} fils, créé au premier besoin et jamais arrêté. */
+    static ForkJoinPool pool(int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
     }
 
     @Override
     public void mouvementEnnemi(String coup) {
+        arreterReflexion();
         String adv = (myColour == IJoueur.NOIR) ? "blanc" : "noir";
+        if (coup.contains("/") && myColour == IJoueur.BLANC) placementNoirAdverse = Placement.parse(coup);
         board.play("E".equals(coup) || "PASSE".equals(coup) ? "E" : coup, adv);
+        reflexionReussie = coupReflexion != Move.NONE && board.hashKey() == cleReflexion;
+        if (reflexionReussie) reflexionsReussies++;
     }
 
     @Override
     public void declareLeVainqueur(int winner) {
+        arreterReflexion();
         // Optional: log the winner
     }
 
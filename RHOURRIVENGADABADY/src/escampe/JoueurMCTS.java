@@ -0,0 +1,317 @@
+package escampe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Joueur Monte-Carlo (UCT) : au lieu de l'heuristique de mobilité de
+ * {@link Recherche}, chaque position de l'arbre est notée par la proportion
+ * de parties aléatoires gagnées à partir d'elle.
+ *
+ * Une simulation descend l'arbre en choisissant le fils de meilleure borne
+ * UCT, ajoute un fils, termine la partie au hasard puis remonte le résultat.
+ * Les parties aléatoires jouent sur le plateau avec makeMove/unmakeMove et des
+ * tampons du fil, sans allocation ; une prise de licorne possible est toujours
+ * jouée, ce qui termine la partie. Au-delà de MAX_SIMULATION demi-coups, ou
+ * après deux passes de suite, la partie est nulle.
+ *
+ * Le parallélisme est à la racine : chaque fil bâtit son propre arbre sur sa
+ * copie du plateau, sans verrou, et les visites des coups racine sont
+ * additionnées à la fin ; le coup le plus visité est joué. Les arbres en plus
+ * du premier tournent sur le pool du joueur, fermé en fin de partie. Les
+ * placements sont ceux de {@link JoueurIA}.
+ */
+public class JoueurMCTS implements IJoueur {
+    // Constante d'exploration de UCT pour des gains dans [0, 1]
+    private static final double EXPLORATION = 1.4;
+    // Profondeur maximale de l'arbre et longueur maximale d'une partie
+    // aléatoire ; leur somme tient dans la pile d'annulation du plateau
+    private static final int MAX_ARBRE = 96;
+    private static final int MAX_SIMULATION = 128;
+
+    private int myColour;
+    private EscampeBoard board;
+    private boolean ouverture;
+    private int placementNoirAdverse = -1;
+    // Temps de réflexion par coup (ms), -Descampe.tempsMs=...
+    private long tempsParCoup = Long.getLong("escampe.tempsMs", 1000);
+    // Instant (System.nanoTime) d'où compter le prochain coup, 0 pour l'appel
+    private long debutCoup;
+    // Nombre d'arbres cherchés en parallèle, -Descampe.threads=...
+    private int threads = Integer.getInteger("escampe.threads", 1);
+    // Fils des arbres en plus du premier, à ce joueur seul ; null tant qu'inutile
+    private ForkJoinPool pool;
+    private long simulations;
+    private double simulationsParSeconde;
+
+    /** Noeud de l'arbre ; ses gains sont ceux du camp qui a joué {@code coup}. */
+    private static final class Noeud {
+        final int coup;
+        int[] coups;         // coups de la position, générés à la première visite
+        Noeud[] enfants;     // les nbEnfants premiers coups, déjà développés
+        int nbEnfants;
+        int visites;
+        double gains;
+
+        Noeud(int coup) {
+            this.coup = coup;
+        }
+    }
+
+    /** Un arbre, son plateau et ses tampons : un seul fil s'en sert. */
+    private static final class Arbre {
+        final EscampeBoard board;
+        final Noeud racine = new Noeud(Move.NONE);
+        final SplittableRandom rand;
+        final Noeud[] chemin = new Noeud[MAX_ARBRE + 2];
+        final int[] buf = new int[Move.MAX_MOVES];
+        final int[] partie = new int[MAX_SIMULATION];
+        long simulations;
+
+        Arbre(EscampeBoard board, int[] rootMoves, long graine) {
+            this.board = board;
+            this.rand  = new SplittableRandom(graine);
+            racine.coups = rootMoves;
+            racine.enfants = new Noeud[rootMoves.length];
+        }
+
+        /** Simulations depuis la position de {@code color} jusqu'à l'échéance. */
+        void chercher(int color, long deadline) {
+            do {
+                for (int i = 0; i < 64; i++) simuler(color);
+            } while (System.nanoTime() < deadline);
+        }
+
+        private void simuler(int color) {
+            Noeud n = racine;
+            int side = color;
+            int d = 0;
+            chemin[0] = racine;
+            // 1) Descente par UCT tant que le noeud est entièrement développé
+            while (!board.gameOver() && d < MAX_ARBRE) {
+                if (n.coups == null) {
+                    n.coups   = Arrays.copyOf(buf, board.generateMoves(side, buf));
+                    n.enfants = new Noeud[n.coups.length];
+                }
+                Noeud suivant;
+                if (n.nbEnfants < n.coups.length) {
+                    // 2) Développement d'un coup pas encore essayé
+                    suivant = new Noeud(n.coups[n.nbEnfants]);
+                    n.enfants[n.nbEnfants++] = suivant;
+                    board.makeMove(suivant.coup, side);
+                    side ^= 1;
+                    chemin[++d] = suivant;
+                    break;
+                }
+                suivant = selection(n);
+                board.makeMove(suivant.coup, side);
+                side ^= 1;
+                chemin[++d] = suivant;
+                n = suivant;
+            }
+
+            // 3) Partie aléatoire, puis 4) remontée : chemin[i] a été joué par
+            // le camp qui n'a pas le trait après lui
+            int vainqueur = board.gameOver() ? gagnant() : partieAleatoire(side);
+            simulations++;
+            for (int i = d; i >= 0; i--) {
+                Noeud c = chemin[i];
+                c.visites++;
+                int auteur = side ^ 1;
+                if (vainqueur < 0)            c.gains += 0.5;
+                else if (vainqueur == auteur) c.gains += 1;
+                if (i > 0) {
+                    board.unmakeMove(c.coup);
+                    side ^= 1;
+                }
+            }
+        }
+
+        private Noeud selection(Noeud n) {
+            double logN = Math.log(n.visites);
+            Noeud best = n.enfants[0];
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n.nbEnfants; i++) {
+                Noeud c = n.enfants[i];
+                double score = c.gains / c.visites + EXPLORATION * Math.sqrt(logN / c.visites);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /** Termine la partie au hasard et renvoie le vainqueur, -1 pour une nulle. */
+        private int partieAleatoire(int side) {
+            int plies = 0, passes = 0, vainqueur = -1;
+            while (plies < MAX_SIMULATION) {
+                if (board.generateCaptures(side, buf, 0) > 0) {
+                    vainqueur = side;
+                    break;
+                }
+                int n = board.generateMoves(side, buf);
+                int move = buf[n == 1 ? 0 : rand.nextInt(n)];
+                if (Move.isPass(move)) {
+                    if (++passes == 2) break;
+                } else {
+                    passes = 0;
+                }
+                board.makeMove(move, side);
+                partie[plies++] = move;
+                side ^= 1;
+            }
+            while (plies > 0) board.unmakeMove(partie[--plies]);
+            return vainqueur;
+        }
+
+        private int gagnant() {
+            return board.hasLicorne(EscampeBoard.WHITE) ? EscampeBoard.WHITE : EscampeBoard.BLACK;
+        }
+    }
+
+    @Override
+    public void initJoueur(int mycolour) {
+        this.myColour  = mycolour;
+        this.board     = new EscampeBoard();
+        this.ouverture = true;
+        this.placementNoirAdverse = -1;
+    }
+
+    /** Fixe le temps de réflexion par coup, en millisecondes. */
+    public void setTempsParCoup(long ms) {
+        this.tempsParCoup = ms;
+    }
+
+    /** Compte le temps du prochain coup depuis {@code nanoTime}, comme {@link JoueurIA#setDebutCoup}. */
+    public void setDebutCoup(long nanoTime) {
+        this.debutCoup = nanoTime;
+    }
+
+    /** Fixe le nombre d'arbres cherchés en parallèle. */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /** Reprend la partie à la position {@code position}, placements faits ; sert aux tests. */
+    void positionner(EscampeBoard position) {
+        this.board     = new EscampeBoard(position);
+        this.ouverture = false;
+    }
+
+    /** Simulations du dernier coup, tous fils confondus. */
+    public long getSimulations() {
+        return simulations;
+    }
+
+    /** Simulations par seconde du dernier coup. */
+    public double getSimulationsParSeconde() {
+        return simulationsParSeconde;
+    }
+
+    @Override
+    public int getNumJoueur() {
+        return myColour;
+    }
+
+    @Override
+    public String choixMouvement() {
+        String me = (myColour == IJoueur.NOIR) ? "noir" : "blanc";
+        long debut = debutCoup != 0 ? debutCoup : System.nanoTime();
+        debutCoup = 0;
+        String move;
+        if (ouverture) {
+            ouverture = false;
+            move = myColour == IJoueur.NOIR ? JoueurIA.placementNoir()
+                 : JoueurIA.placementBlanc(board, placementNoirAdverse, new TranspositionTable(1),
+                                           new Recherche.Controle(debut + tempsParCoup * 1_000_000L));
+        } else {
+            move = Move.toString(chercher(debut));
+            if (Telemetrie.active()) {
+                Telemetrie.ecrire(String.format(Locale.ROOT,
+                    "{\"joueur\":\"%s\",\"coup\":\"%s\",\"simulations\":%d,\"simulations_par_s\":%.0f}",
+                    me, move, simulations, simulationsParSeconde));
+            }
+        }
+        board.play(move, me);
+        return move;
+    }
+
+    /** Coup le plus visité, tous arbres confondus, dans le temps d'un coup compté depuis {@code start}. */
+    private int chercher(long start) {
+        long deadline = start + tempsParCoup * 1_000_000L;
+        int color = myColour == IJoueur.NOIR ? EscampeBoard.BLACK : EscampeBoard.WHITE;
+        int[] buf = new int[Move.MAX_MOVES];
+        int[] rootMoves = Arrays.copyOf(buf, board.generateMoves(color, buf));
+        simulations = 0;
+        simulationsParSeconde = 0;
+        if (rootMoves.length == 1) return rootMoves[0];
+
+        Arbre[] arbres = new Arbre[Math.max(1, threads)];
+        long graine = System.nanoTime();
+        for (int i = 0; i < arbres.length; i++) {
+            arbres[i] = new Arbre(new EscampeBoard(board), rootMoves, graine + i);
+        }
+        List<Future<?>> fils = new ArrayList<>();
+        for (int i = 1; i < arbres.length; i++) {
+            Arbre a = arbres[i];
+            fils.add(pool().submit(() -> a.chercher(color, deadline)));
+        }
+        arbres[0].chercher(color, deadline);
+        for (Future<?> f : fils) {
+            try {
+                f.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Recherche MCTS interrompue", e);
+            }
+        }
+
+        // Les coups racine sont développés dans le même ordre dans chaque arbre
+        int[] visites = new int[rootMoves.length];
+        for (Arbre a : arbres) {
+            simulations += a.simulations;
+            for (int i = 0; i < a.racine.nbEnfants; i++) visites[i] += a.racine.enfants[i].visites;
+        }
+        int best = 0;
+        for (int i = 1; i < rootMoves.length; i++) {
+            if (visites[i] > visites[best]) best = i;
+        }
+        simulationsParSeconde = simulations * 1e9 / Math.max(1, System.nanoTime() - start);
+        return rootMoves[best];
+    }
+
+    /** Pool des arbres auxiliaires, refait si le nombre de fils a changé. */
+    private ForkJoinPool pool() {
+        if (pool == null || pool.getParallelism() != threads - 1) {
+            if (pool != null) pool.shutdown();
+            pool = new ForkJoinPool(threads - 1);
+        }
+        return pool;
+    }
+
+    @Override
+    public void mouvementEnnemi(String coup) {
+        String adv = (myColour == IJoueur.NOIR) ? "blanc" : "noir";
+        if (coup.contains("/") && myColour == IJoueur.BLANC) placementNoirAdverse = Placement.parse(coup);
+        board.play("E".equals(coup) || "PASSE".equals(coup) ? "E" : coup, adv);
+    }
+
+    @Override
+    public void declareLeVainqueur(int winner) {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    @Override
+    public String binoName() {
+        return "IA-Escampe-MCTS";
+    }
+}
@@ -0,0 +1,94 @@
+package escampe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Livre d'ouvertures précalculé par {@link GenerateurLivre} : le placement du
+ * joueur noir et, pour chacun des {@link Placement#COUNT} placements noirs
+ * possibles, la meilleure réponse blanche. Les placements sont des index
+ * {@link Placement}, si bien qu'une consultation est une simple lecture de
+ * tableau.
+ *
+ * Format binaire (big-endian) :
+ * <pre>
+ *   int    MAGIC
+ *   int    VERSION
+ *   int    profondeur de recherche utilisée
+ *   short  placement noir
+ *   short  réponse blanche à chaque placement noir, -1 si aucune
+ * </pre>
+ */
+public class LivreOuvertures {
+    private static final int MAGIC = 0x45534342;  // "ESCB"
+    private static final int VERSION = 1;
+    /** Ressource chargée par défaut, à côté des classes du paquetage. */
+    static final String RESSOURCE = "ouvertures.bin";
+
+    private final int profondeur;
+    private final int placementNoir;
+    private final short[] reponsesBlanc;
+
+    LivreOuvertures(int profondeur, int placementNoir, short[] reponsesBlanc) {
+        this.profondeur    = profondeur;
+        this.placementNoir = placementNoir;
+        this.reponsesBlanc = reponsesBlanc;
+    }
+
+    /**
+     * Charge le livre du fichier donné par -Descampe.livre=..., sinon la
+     * ressource {@link #RESSOURCE} ; renvoie null si aucun n'est disponible.
+     */
+    public static LivreOuvertures charger() {
+        String fichier = System.getProperty("escampe.livre");
+        try (InputStream in = fichier != null ? new FileInputStream(fichier)
+                                              : LivreOuvertures.class.getResourceAsStream(RESSOURCE)) {
+            return in == null ? null : lire(in);
+        } catch (IOException e) {
+            System.err.println("Livre d'ouvertures illisible : " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static LivreOuvertures lire(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("format de livre inconnu");
+        }
+        int profondeur = data.readInt();
+        int noir = data.readShort();
+        short[] reponses = new short[Placement.COUNT];
+        for (int i = 0; i < reponses.length; i++) reponses[i] = data.readShort();
+        return new LivreOuvertures(profondeur, noir, reponses);
+    }
+
+    public void ecrire(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(profondeur);
+        data.writeShort(placementNoir);
+        for (short r : reponsesBlanc) data.writeShort(r);
+        data.flush();
+    }
+
+    /** Placement {@link Placement} du joueur noir. */
+    public int placementNoir() {
+        return placementNoir;
+    }
+
+    /** Réponse blanche au placement noir {@code noir}, ou -1 s'il n'est pas dans le livre. */
+    public int reponseBlanc(int noir) {
+        return noir < 0 ? -1 : reponsesBlanc[noir];
+    }
+
+    public int getProfondeur() {
+        return profondeur;
+    }
+}
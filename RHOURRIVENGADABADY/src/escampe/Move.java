@@ -0,0 +1,87 @@
+package escampe;
+
+/**
+ * Integer move encoding used by the search, so that generating and playing
+ * moves allocates nothing.
+ *
+ * <pre>
+ *   bits 0-5   from square (row * 6 + col)
+ *   bits 6-11  to square
+ *   bit  12    PASS  ("E")
+ *   bit  13    CAPTURE (a paladin takes the enemy licorne)
+ * </pre>
+ * 0 is never a legal move ("A1-A1") and stands for "no move". Conversions to
+ * and from the "C1-D4" wire format go through precomputed name tables.
+ */
+public final class Move {
+    public static final int NONE = 0;
+    public static final int PASS = 1 << 12;
+    public static final int CAPTURE = 1 << 13;
+
+    /** Bits that identify a move; flags beyond them are hints only. */
+    public static final int KEY_MASK = (1 << 13) - 1;
+
+    /** Most moves a position can have: 6 pieces times 4 directions, or a pass. */
+    public static final int MAX_MOVES = 32;
+
+    private static final String[] SQUARE_NAMES = new String[EscampeBoard.NB_SQUARES];
+    private static final String[] MOVE_NAMES = new String[1 << 12];
+
+    static {
+        for (int sq = 0; sq < EscampeBoard.NB_SQUARES; sq++) {
+            SQUARE_NAMES[sq] = "" + (char) ('A' + sq % 6) + (sq / 6 + 1);
+        }
+        for (int from = 0; from < EscampeBoard.NB_SQUARES; from++) {
+            for (int to = 0; to < EscampeBoard.NB_SQUARES; to++) {
+                MOVE_NAMES[from | to << 6] = SQUARE_NAMES[from] + "-" + SQUARE_NAMES[to];
+            }
+        }
+    }
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | to << 6 | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static boolean isPass(int move) {
+        return (move & PASS) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /** Name of a square, e.g. "C4" for square 20. */
+    public static String squareName(int sq) {
+        return SQUARE_NAMES[sq];
+    }
+
+    /** Wire format: "C1-D4", or "E" for a pass. Never allocates. */
+    public static String toString(int move) {
+        if (isPass(move)) return "E";
+        return MOVE_NAMES[move & 0xFFF];
+    }
+
+    /**
+     * Parses "C1-D4" or "E" (flags other than PASS are not set), or returns
+     * {@link #NONE} if the text is not a move on the board.
+     */
+    public static int parse(String move) {
+        if ("E".equals(move)) return PASS;
+        if (move.length() != 5 || move.charAt(2) != '-') return NONE;
+        int from = EscampeBoard.square(move.charAt(0), move.charAt(1));
+        int to   = EscampeBoard.square(move.charAt(3), move.charAt(4));
+        if (from < 0 || to < 0) return NONE;
+        return encode(from, to, 0);
+    }
+}
@@ -0,0 +1,197 @@
+package escampe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Noeud de la recherche alpha-beta parallèle « young brothers wait ».
+ *
+ * Le fils aîné est cherché d'abord, par le fil courant ; s'il ne provoque pas de
+ * coupure, les frères cadets sont confiés au ForkJoinPool, chacun sur sa propre
+ * copie du plateau. La fenêtre (alpha, beta) du noeud est partagée : chaque fils
+ * la lit au moment où il démarre et y reporte son score dès qu'il termine. Une
+ * coupure annule les frères encore en cours, ainsi que tous leurs descendants.
+ * Sous SPLIT_DEPTH, le noeud est cherché séquentiellement par {@link Recherche}.
+ */
+class NoeudParallele extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    // Profondeur restante minimale pour découper un noeud entre plusieurs fils
+    static final int SPLIT_DEPTH = 3;
+
+    // Tables killer/historique propres à chaque fil du pool
+    private static final ThreadLocal<OrdreCoups> ORDRE = ThreadLocal.withInitial(OrdreCoups::new);
+
+    private final NoeudParallele parent;
+    private final EscampeBoard board;
+    private final int move;              // coup qui mène à ce noeud depuis le parent
+    private final int[] rootMoves;       // coups imposés (ordre de la racine), sinon null
+    private final int depth;
+    private final int ply;
+    private final boolean isMaximizing;
+    private final TranspositionTable tt;
+    private final Recherche.Controle controle;
+    private final int myColor;
+
+    // Fenêtre et meilleur coup courants, protégés par le moniteur du noeud
+    private int alpha, beta;
+    private int best;
+    private int bestMove;
+    private volatile boolean cutoff;
+
+    // Résultat pour le parent ; aborted si la valeur ne doit pas être utilisée
+    private int value;
+    private boolean aborted;
+
+    /** Racine : cherche {@code rootMoves} dans cet ordre, pour {@code myColor}. */
+    NoeudParallele(EscampeBoard board, int[] rootMoves, int depth, int alpha,
+                   TranspositionTable tt, Recherche.Controle controle, int myColor) {
+        this(null, board, Move.NONE, rootMoves, depth, 0, true, alpha, Recherche.INF,
+             tt, controle, myColor);
+    }
+
+    private NoeudParallele(NoeudParallele parent, EscampeBoard board, int move,
+                           int[] rootMoves, int depth, int ply, boolean isMaximizing,
+                           int alpha, int beta, TranspositionTable tt,
+                           Recherche.Controle controle, int myColor) {
+        this.parent       = parent;
+        this.board        = board;
+        this.move         = move;
+        this.rootMoves    = rootMoves;
+        this.depth        = depth;
+        this.ply          = ply;
+        this.isMaximizing = isMaximizing;
+        this.alpha        = alpha;
+        this.beta         = beta;
+        this.tt           = tt;
+        this.controle     = controle;
+        this.myColor      = myColor;
+    }
+
+    @Override
+    protected void compute() {
+        // Les frères cadets démarrent avec la fenêtre à jour du parent
+        if (parent != null) {
+            synchronized (parent) {
+                alpha = parent.alpha;
+                beta  = parent.beta;
+            }
+        }
+        Recherche r = new Recherche(board, tt, controle, ORDRE.get(), myColor);
+        r.split = this;
+        r.ply = ply;
+        if (parent != null && isPruned()) {
+            aborted = true;
+        } else if (depth < SPLIT_DEPTH) {
+            value = r.minimaxValue(depth, isMaximizing, alpha, beta);
+            aborted = r.aborted;
+        } else {
+            search(r);
+        }
+        if (parent != null && !aborted) parent.report(move, value);
+    }
+
+    private void search(Recherche r) {
+        if (r.checkAbort()) {
+            aborted = true;
+            return;
+        }
+        if (r.isTerminal()) {
+            value = r.evaluateBoard();
+            return;
+        }
+        int side = isMaximizing ? myColor : myColor ^ 1;
+        int[] moves = rootMoves;
+        int n = moves != null ? moves.length : 0;
+        if (moves == null) {
+            // Pas les tampons du fil : il peut chercher d'autres noeuds de ce pli pendant invokeAll
+            moves = new int[Move.MAX_MOVES];
+            n = board.generateMoves(side, moves);
+        }
+        int alphaOrig = alpha, betaOrig = beta;
+        best = isMaximizing ? -Recherche.INF : Recherche.INF;
+        bestMove = moves[0];
+
+        // 1) Le fils aîné, sur notre plateau et dans notre fil
+        board.makeMove(moves[0], side);
+        NoeudParallele eldest = child(board, moves[0]);
+        eldest.compute();
+        board.unmakeMove(moves[0]);
+        if (eldest.aborted) {
+            aborted = true;
+            return;
+        }
+        if (cutoff) {
+            r.stats.coupures++;
+            r.stats.coupuresPremierCoup++;
+        }
+
+        // 2) Les frères cadets, en parallèle sur des copies du plateau
+        if (!cutoff && n > 1) {
+            List<NoeudParallele> younger = new ArrayList<>(n - 1);
+            for (int i = 1; i < n; i++) {
+                EscampeBoard copy = new EscampeBoard(board);
+                copy.makeMove(moves[i], side);
+                younger.add(child(copy, moves[i]));
+            }
+            invokeAll(younger);
+            for (NoeudParallele y : younger) {
+                // Un frère annulé par notre propre coupure ne change rien au résultat
+                if (y.aborted && !cutoff) {
+                    aborted = true;
+                    return;
+                }
+            }
+            if (cutoff) r.stats.coupures++;
+        }
+
+        synchronized (this) {
+            value = best;
+        }
+        tt.store(board.hashKey(), depth, Recherche.boundType(value, alphaOrig, betaOrig),
+                 value, bestMove, ply);
+    }
+
+    private NoeudParallele child(EscampeBoard b, int m) {
+        int a, bt;
+        synchronized (this) {
+            a = alpha;
+            bt = beta;
+        }
+        return new NoeudParallele(this, b, m, null, depth - 1, ply + 1, !isMaximizing, a, bt,
+                                  tt, controle, myColor);
+    }
+
+    /** Score d'un fils terminé : met à jour la fenêtre et coupe si elle se referme. */
+    private synchronized void report(int m, int val) {
+        if (cutoff) return;
+        if (isMaximizing ? val > best : val < best) {
+            best = val;
+            bestMove = m;
+        }
+        if (isMaximizing) alpha = Math.max(alpha, val);
+        else              beta  = Math.min(beta, val);
+        if (beta <= alpha) cutoff = true;
+    }
+
+    /** Vrai si un ancêtre a coupé : la valeur de cette branche ne servira plus. */
+    boolean isPruned() {
+        for (NoeudParallele n = parent; n != null; n = n.parent) {
+            if (n.cutoff) return true;
+        }
+        return false;
+    }
+
+    boolean isAborted() {
+        return aborted;
+    }
+
+    synchronized int getBestMove() {
+        return bestMove;
+    }
+
+    synchronized int getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,77 @@
+package escampe;
+
+/**
+ * Ordonnancement des coups pour l'alpha-beta : coup de la table de
+ * transposition d'abord, puis les prises de licorne par un paladin, puis les
+ * deux coups « killer » du pli, puis les autres coups selon l'heuristique
+ * d'historique (indexée par couleur, case de départ et case d'arrivée).
+ *
+ * Porte aussi le {@link GenerateurCoups} de chaque pli, pour que la recherche
+ * n'alloue rien. Une instance par fil de recherche : rien n'est
+ * synchronisé.
+ */
+class OrdreCoups {
+    static final int MAX_PLY = 128;
+
+    private static final int SCORE_TT      = 1 << 30;
+    private static final int SCORE_CAPTURE = 1 << 29;
+    private static final int SCORE_KILLER  = 1 << 28;
+    // Au-delà, tout l'historique est divisé par deux pour garder les coups récents en tête
+    private static final int HISTORY_MAX   = 1 << 20;
+
+    // Faux : coups dans l'ordre du générateur, sans coup de la table ni notes,
+    // pour mesurer ce que l'ordonnancement fait gagner
+    boolean actif = true;
+
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[2][1 << 12];
+    private final GenerateurCoups[] generateurs = new GenerateurCoups[MAX_PLY];
+
+    OrdreCoups() {
+        for (int ply = 0; ply < MAX_PLY; ply++) generateurs[ply] = new GenerateurCoups(this);
+    }
+
+    GenerateurCoups generateur(int ply) {
+        return generateurs[ply];
+    }
+
+    /** Note les {@code n} coups de {@code color} de {@code moves} pour {@link #pickNext}. */
+    void score(int[] moves, int[] scores, int n, int color, int ttMove, int ply) {
+        int[] h = history[color];
+        for (int i = 0; i < n; i++) {
+            int move = moves[i];
+            if (move == ttMove)                 scores[i] = SCORE_TT;
+            else if (Move.isCapture(move))      scores[i] = SCORE_CAPTURE;
+            else if (move == killers[ply][0])   scores[i] = SCORE_KILLER + 1;
+            else if (move == killers[ply][1])   scores[i] = SCORE_KILLER;
+            else                                scores[i] = h[move & 0xFFF];
+        }
+    }
+
+    /** Amène en position {@code i} le coup le mieux noté parmi les {@code n} premiers. */
+    static void pickNext(int[] moves, int[] scores, int n, int i) {
+        int best = i;
+        for (int j = i + 1; j < n; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int m = moves[i];  moves[i] = moves[best];   moves[best] = m;
+            int s = scores[i]; scores[i] = scores[best]; scores[best] = s;
+        }
+    }
+
+    /** Un coup tranquille de {@code color} a provoqué une coupure au pli {@code ply}. */
+    void cutoff(int move, int color, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] h = history[color];
+        h[move & 0xFFF] += depth * depth;
+        if (h[move & 0xFFF] > HISTORY_MAX) {
+            for (int[] side : history) {
+                for (int k = 0; k < side.length; k++) side[k] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package escampe;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Perft : nombre de feuilles de l'arbre des coups jusqu'à une profondeur
+ * donnée, pour mesurer le générateur de {@link EscampeBoard} et vérifier
+ * qu'une optimisation n'a rien changé aux coups légaux (voir les comptes de
+ * référence de TestAll).
+ *
+ * Une passe forcée compte comme un coup. Une position où une licorne a été
+ * prise n'a pas de suite : elle compte comme feuille à la profondeur 0 et ne
+ * compte plus au-delà. Au dernier pli, les coups sont comptés sans être joués.
+ *
+ * Usage : java escampe.Perft fichier profondeur [noir] [divide] [fils=N]
+ * Le fichier est au format de setFromFile ; blanc joue, sauf avec « noir ».
+ * « divide » détaille le compte par coup racine, « fils=N » répartit les coups
+ * racine entre N fils.
+ */
+public class Perft {
+    private final EscampeBoard board;
+    private final int[][] buffers;
+
+    Perft(EscampeBoard board, int depth) {
+        this.board   = board;
+        this.buffers = new int[Math.max(depth, 1)][Move.MAX_MOVES];
+    }
+
+    /** Feuilles à {@code depth} demi-coups de la position, {@code color} au trait. */
+    long compter(int color, int depth) {
+        return compter(color, depth, 0);
+    }
+
+    private long compter(int color, int depth, int ply) {
+        if (depth == 0) return 1;
+        if (board.gameOver()) return 0;
+        int[] moves = buffers[ply];
+        int n = board.generateMoves(color, moves);
+        if (depth == 1) return n;
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            board.makeMove(moves[i], color);
+            total += compter(color ^ 1, depth - 1, ply + 1);
+            board.unmakeMove(moves[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Compte de chaque coup racine, dans l'ordre du générateur ; {@code fils}
+     * au-delà de 1 répartit les coups racine sur un ForkJoinPool, chaque fil
+     * sur sa copie du plateau.
+     */
+    static long[] diviser(EscampeBoard board, int color, int depth, int[] rootMoves, int fils)
+            throws InterruptedException, ExecutionException {
+        long[] counts = new long[rootMoves.length];
+        if (fils <= 1) {
+            Perft p = new Perft(board, depth);
+            for (int i = 0; i < rootMoves.length; i++) counts[i] = p.compterApres(rootMoves[i], color, depth);
+            return counts;
+        }
+        ForkJoinPool pool = new ForkJoinPool(fils);
+        try {
+            pool.submit(() -> Arrays.parallelSetAll(counts, i ->
+                new Perft(new EscampeBoard(board), depth).compterApres(rootMoves[i], color, depth))).get();
+        } finally {
+            pool.shutdown();
+        }
+        return counts;
+    }
+
+    private long compterApres(int move, int color, int depth) {
+        board.makeMove(move, color);
+        long n = compter(color ^ 1, depth - 1, 1);
+        board.unmakeMove(move);
+        return n;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Perft Usage: fichier profondeur [noir] [divide] [fils=N]");
+            System.exit(1);
+        }
+        EscampeBoard board = new EscampeBoard();
+        board.setFromFile(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        int color = EscampeBoard.WHITE, fils = 1;
+        boolean divide = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("noir"))            color = EscampeBoard.BLACK;
+            else if (args[i].equals("divide"))     divide = true;
+            else if (args[i].startsWith("fils="))  fils = Integer.parseInt(args[i].substring(5));
+            else throw new IllegalArgumentException("Option inconnue : " + args[i]);
+        }
+        if (depth < 1) throw new IllegalArgumentException("profondeur >= 1 attendue");
+
+        long start = System.nanoTime();
+        int[] buf = new int[Move.MAX_MOVES];
+        int[] rootMoves = board.gameOver() ? new int[0]
+                        : Arrays.copyOf(buf, board.generateMoves(color, buf));
+        long[] counts = diviser(board, color, depth, rootMoves, fils);
+        long total = 0;
+        for (int i = 0; i < rootMoves.length; i++) {
+            if (divide) System.out.println(Move.toString(rootMoves[i]) + " : " + counts[i]);
+            total += counts[i];
+        }
+        long ns = Math.max(System.nanoTime() - start, 1);
+        System.out.println("perft(" + depth + ") = " + total + " en " + ns / 1_000_000 + " ms, "
+                           + (long) (total * 1e9 / ns) + " noeuds/s");
+    }
+}
@@ -0,0 +1,97 @@
+package escampe;
+
+/**
+ * Index of the opening placements, so that they can be generated, searched
+ * and stored in the opening book as plain ints.
+ *
+ * A placement puts the six pieces of a colour on one of the two home sides of
+ * the board, rows 1-2 (side 0) or rows 5-6 (side 1): one of the 924 ways to
+ * pick 6 of the 12 squares, times the 6 possible squares of the licorne.
+ * <pre>
+ *   index = (side * 924 + layout) * 6 + licorne slot
+ * </pre>
+ * where the licorne slot counts the chosen squares in ascending order.
+ */
+public final class Placement {
+    public static final int SIDES = 2;
+    private static final int SIDE_SQUARES = 12;
+    private static final int LAYOUTS = 924;  // 12 choose 6
+    public static final int PER_SIDE = LAYOUTS * 6;
+    public static final int COUNT = SIDES * PER_SIDE;
+
+    // 12-bit masks of the layouts, and the reverse rank of each mask (-1 if not 6 bits)
+    private static final int[] LAYOUT_MASK = new int[LAYOUTS];
+    private static final short[] LAYOUT_RANK = new short[1 << SIDE_SQUARES];
+
+    static {
+        int n = 0;
+        for (int mask = 0; mask < 1 << SIDE_SQUARES; mask++) {
+            LAYOUT_RANK[mask] = -1;
+            if (Integer.bitCount(mask) == 6) {
+                LAYOUT_RANK[mask] = (short) n;
+                LAYOUT_MASK[n++] = mask;
+            }
+        }
+    }
+
+    private Placement() {
+    }
+
+    /** All the squares of a home side, as a bitboard. */
+    public static long sideSquares(int side) {
+        return ((1L << SIDE_SQUARES) - 1) << firstSquare(side);
+    }
+
+    public static int side(int placement) {
+        return placement / PER_SIDE;
+    }
+
+    /** The six squares of the placement, as a bitboard. */
+    public static long squares(int placement) {
+        return (long) LAYOUT_MASK[placement % PER_SIDE / 6] << firstSquare(side(placement));
+    }
+
+    public static int licorne(int placement) {
+        long bb = squares(placement);
+        for (int slot = placement % 6; slot > 0; slot--) bb &= bb - 1;
+        return Long.numberOfTrailingZeros(bb);
+    }
+
+    public static long paladins(int placement) {
+        return squares(placement) & ~(1L << licorne(placement));
+    }
+
+    /** Wire format, licorne first: "C6/A6/B5/D5/E6/F5". */
+    public static String toString(int placement) {
+        StringBuilder sb = new StringBuilder(17).append(Move.squareName(licorne(placement)));
+        for (long bb = paladins(placement); bb != 0; bb &= bb - 1) {
+            sb.append('/').append(Move.squareName(Long.numberOfTrailingZeros(bb)));
+        }
+        return sb.toString();
+    }
+
+    /** Index of a placement in wire format, or -1 if it is not on a single home side. */
+    public static int parse(String move) {
+        String[] cells = move.split("/");
+        if (cells.length != 6) return -1;
+        long bb = 0;
+        for (String cell : cells) {
+            int sq = EscampeBoard.square(cell);
+            if (sq < 0) return -1;
+            bb |= 1L << sq;
+        }
+        if (Long.bitCount(bb) != 6) return -1;
+        for (int side = 0; side < SIDES; side++) {
+            if ((bb & ~sideSquares(side)) != 0) continue;
+            int layout = LAYOUT_RANK[(int) (bb >>> firstSquare(side))];
+            int licorne = EscampeBoard.square(cells[0]);
+            int slot = Long.bitCount(bb & ((1L << licorne) - 1));
+            return (side * LAYOUTS + layout) * 6 + slot;
+        }
+        return -1;
+    }
+
+    private static int firstSquare(int side) {
+        return side == 0 ? 0 : EscampeBoard.NB_SQUARES - SIDE_SQUARES;
+    }
+}
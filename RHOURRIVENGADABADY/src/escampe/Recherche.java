@@ -0,0 +1,349 @@
+package escampe;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Recherche Minimax alpha-beta sur un plateau, pour un fil d'exécution.
+ *
+ * JoueurIA en utilise une sur son propre plateau ; en mode parallèle chaque
+ * tâche de {@link NoeudParallele} en crée une sur sa copie du plateau. La table
+ * de transposition et le {@link Controle} sont partagés entre tous les fils.
+ */
+class Recherche {
+    // L'horloge et les annulations ne sont lues que tous les CHECK_NODES noeuds
+    static final int CHECK_NODES = 1024;
+    // Score d'une licorne prise, diminué de la distance à la racine pour
+    // préférer les gains rapides et les pertes lointaines
+    static final int WIN = 10000;
+    // Borne des fenêtres, au-delà de tout score
+    static final int INF = WIN + 1;
+    // A partir de là, un score est celui d'une licorne prise, à une distance
+    // WIN - score ; bien au-delà de toute évaluation et de toute distance
+    static final int GAIN = WIN / 2;
+    // Un coup de mobilité vaut MOBILITE, une pièce de plus vaut 1
+    static final int MOBILITE = 10;
+    // Quiescence à l'horizon, -Descampe.quiescence=false pour la couper
+    static final boolean QUIESCENCE = Boolean.parseBoolean(System.getProperty("escampe.quiescence", "true"));
+    // Gain le plus grand prêté à un coup tranquille par l'élagage delta
+    static final int DELTA = 5 * MOBILITE;
+    // Demi-coups de quiescence au plus au-delà de l'horizon
+    static final int MAX_QUIESCENCE = 8;
+
+    // Recherche sélective, chaque technique coupable pour les comparaisons A/B.
+    // Réductions des coups tardifs (LMR), -Descampe.lmr=false pour les couper :
+    // un coup tranquille essayé après les LMR_COUPS premiers, à partir de la
+    // profondeur LMR_PROFONDEUR, est cherché un pli moins profond (deux plis
+    // après 2 * LMR_COUPS coups dès la profondeur LMR_PROFONDEUR + 3)
+    static final boolean LMR = Boolean.parseBoolean(System.getProperty("escampe.lmr", "true"));
+    static final int LMR_PROFONDEUR = Integer.getInteger("escampe.lmrProfondeur", 3);
+    static final int LMR_COUPS = Integer.getInteger("escampe.lmrCoups", 3);
+    // Elagage de futilité aux profondeurs 1 et 2, -Descampe.futilite=false :
+    // marge par pli restant au-delà de laquelle un coup tranquille est sans espoir
+    static final boolean FUTILITE = Boolean.parseBoolean(System.getProperty("escampe.futilite", "true"));
+    static final int MARGE_FUTILITE = Integer.getInteger("escampe.margeFutilite", 3 * MOBILITE);
+    // Razoring aux profondeurs 1 et 2, -Descampe.razoring=false : une position
+    // très en dessous de la fenêtre est vérifiée par la seule quiescence
+    static final boolean RAZORING = Boolean.parseBoolean(System.getProperty("escampe.razoring", "true"));
+    static final int MARGE_RAZORING = Integer.getInteger("escampe.margeRazoring", 6 * MOBILITE);
+
+    /**
+     * Echéance et drapeau d'arrêt communs à tous les fils d'une même recherche,
+     * et compteurs de chacun de ces fils.
+     */
+    static final class Controle {
+        final long deadline;
+        volatile boolean stopped;
+        private final List<Statistiques> parFil = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<Statistiques> locales = ThreadLocal.withInitial(() -> {
+            Statistiques s = new Statistiques();
+            parFil.add(s);
+            return s;
+        });
+
+        Controle(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /** Compteurs du fil courant, qu'il est seul à modifier. */
+        Statistiques statistiques() {
+            return locales.get();
+        }
+
+        /** Somme des compteurs de tous les fils ; exacte une fois qu'ils sont arrêtés. */
+        Statistiques total() {
+            Statistiques t = new Statistiques();
+            for (Statistiques s : parFil) t.ajouter(s);
+            return t;
+        }
+    }
+
+    final EscampeBoard board;
+    final TranspositionTable tt;
+    final Controle controle;
+    final int myColor, oppColor;
+    final OrdreCoups ordre;
+    final Statistiques stats;
+    private final TranspositionTable.Hit ttHit = new TranspositionTable.Hit();
+
+    // Tâche parallèle qui a lancé cette recherche, ou null en mode séquentiel
+    NoeudParallele split;
+    // Distance à la racine du noeud courant (index des coups killer)
+    int ply;
+    // Vrai si le résultat en cours ne vaut rien (temps écoulé ou branche annulée)
+    boolean aborted;
+    // Score du meilleur coup de la dernière recherche de la racine (JoueurIA.rootSearch)
+    int rootScore;
+    // Tables de finales, -Descampe.tables=dossier (null sans tables)
+    TablesFinales tables = TablesFinales.DEFAUT;
+    // Quiescence et techniques sélectives de cette recherche, par défaut selon
+    // les propriétés ci-dessus ; les tests les changent recherche par recherche
+    boolean avecQuiescence = QUIESCENCE;
+    boolean lmr = LMR, futilite = FUTILITE, razoring = RAZORING;
+
+    Recherche(EscampeBoard board, TranspositionTable tt, Controle controle,
+              OrdreCoups ordre, int myColor) {
+        this.board    = board;
+        this.tt       = tt;
+        this.controle = controle;
+        this.ordre    = ordre;
+        this.stats    = controle.statistiques();
+        this.myColor  = myColor;
+        this.oppColor = myColor ^ 1;
+    }
+
+    /**
+     * Minimax récursif avec élagage alpha-beta, en PVS : le premier coup est
+     * cherché avec toute la fenêtre, les suivants d'abord avec une fenêtre
+     * nulle qui dit seulement s'ils font mieux, et ne sont recherchés avec la
+     * fenêtre complète que dans ce cas. Les scores sont des entiers, toujours
+     * du point de vue de {@code myColor} ; les coups sont des entiers
+     * {@link Move} rendus un à un par le générateur du pli, sans allocation. La
+     * table de transposition garde les résultats des sous-arbres déjà cherchés
+     * au moins aussi profondément.
+     *
+     * La recherche est sélective dans les positions calmes, où aucune licorne
+     * n'est menacée : près des feuilles, le razoring renvoie à la quiescence
+     * une position très en dessous de la fenêtre, et l'élagage de futilité
+     * saute les coups tranquilles qui ne peuvent pas la rattraper ; plus haut,
+     * les coups tranquilles tardifs sont d'abord cherchés moins profond (LMR)
+     * et ne sont recherchés à pleine profondeur que s'ils battent la borne.
+     * Un coup qui menace la licorne adverse n'est jamais élagué ni réduit.
+     */
+    int minimaxValue(int depth,
+                     boolean isMaximizing,
+                     int alpha,
+                     int beta) {
+        if (checkAbort()) return 0;
+
+        // Test terminal interne
+        if (isTerminal()) {
+            return evaluateBoard();
+        }
+        int side = isMaximizing ? myColor : oppColor;
+        if (tables != null) {
+            int v = tables.sonder(board, side);
+            if (v != TablesFinales.HORS_TABLE) return scoreTable(v, side);
+        }
+        if (depth == 0) {
+            return avecQuiescence ? quiescence(isMaximizing, alpha, beta, 0) : evaluateBoard();
+        }
+
+        long key = board.hashKey();
+        int ttMove = 0;
+        stats.sondesTable++;
+        if (tt.probe(key, ply, ttHit)) {
+            stats.succesTable++;
+            ttMove = ttHit.move;
+            if (ttHit.depth >= depth) {
+                if (ttHit.bound == TranspositionTable.EXACT) return ttHit.score;
+                if (ttHit.bound == TranspositionTable.LOWER) alpha = Math.max(alpha, ttHit.score);
+                else                                          beta  = Math.min(beta, ttHit.score);
+                if (beta <= alpha) return ttHit.score;
+            }
+        }
+
+        // Position calme : la recherche peut y être sélective ; les marges ne
+        // valent que pour une fenêtre loin des scores de licorne prise
+        boolean calme = (lmr || futilite || razoring) && !board.licorneThreatened(side);
+        boolean futile = false;
+        int marge = 0;
+        if (calme && depth <= 2 && (futilite || razoring)
+                && Math.abs(alpha) < WIN - OrdreCoups.MAX_PLY && Math.abs(beta) < WIN - OrdreCoups.MAX_PLY) {
+            int eval = evaluateBoard();
+            if (razoring && (isMaximizing ? eval + MARGE_RAZORING * depth <= alpha
+                                          : eval - MARGE_RAZORING * depth >= beta)) {
+                int v = quiescence(isMaximizing, alpha, beta, 0);
+                if (aborted) return 0;
+                if (isMaximizing ? v <= alpha : v >= beta) return v;
+            }
+            marge  = isMaximizing ? eval + MARGE_FUTILITE * depth : eval - MARGE_FUTILITE * depth;
+            futile = futilite && (isMaximizing ? marge <= alpha : marge >= beta);
+        }
+
+        GenerateurCoups gen = ordre.generateur(ply);
+        gen.init(board, side, ttMove, ply);
+
+        int alphaOrig = alpha, betaOrig = beta;
+        int best = isMaximizing ? -INF : INF;
+        int bestMove = Move.NONE;
+        int tried = 0;
+        for (int move; (move = gen.next()) != Move.NONE; ) {
+            tried++;
+            board.makeMove(move, side);
+            boolean reduire = lmr && depth >= LMR_PROFONDEUR && tried > LMR_COUPS;
+            boolean tranquille = (futile || reduire) && tried > 1 && calme && !Move.isCapture(move)
+                              && !board.licorneThreatened(side ^ 1);
+            if (futile && tranquille) {
+                // Ne rattrape pas la fenêtre : compté comme s'il valait la marge
+                board.unmakeMove(move);
+                stats.coupsElagues++;
+                if (isMaximizing ? marge > best : marge < best) best = marge;
+                continue;
+            }
+            int reduction = 0;
+            if (reduire && tranquille) {
+                reduction = tried > 2 * LMR_COUPS && depth >= LMR_PROFONDEUR + 3 ? 2 : 1;
+                stats.reductions++;
+            }
+            ply++;
+            int val;
+            if (tried == 1) {
+                val = minimaxValue(depth - 1, !isMaximizing, alpha, beta);
+            } else if (isMaximizing) {
+                val = minimaxValue(depth - 1 - reduction, false, alpha, alpha + 1);
+                if (reduction > 0 && val > alpha && !aborted) val = minimaxValue(depth - 1, false, alpha, alpha + 1);
+                if (val > alpha && val < beta && !aborted) val = minimaxValue(depth - 1, false, alpha, beta);
+            } else {
+                val = minimaxValue(depth - 1 - reduction, true, beta - 1, beta);
+                if (reduction > 0 && val < beta && !aborted) val = minimaxValue(depth - 1, true, beta - 1, beta);
+                if (val < beta && val > alpha && !aborted) val = minimaxValue(depth - 1, true, alpha, beta);
+            }
+            ply--;
+            board.unmakeMove(move);
+            if (aborted) return 0;
+
+            if (isMaximizing ? val > best : val < best) {
+                best = val;
+                bestMove = move;
+            }
+            if (isMaximizing) {
+                alpha = Math.max(alpha, val);
+            } else {
+                beta  = Math.min(beta, val);
+            }
+            if (beta <= alpha) {
+                stats.coupures++;
+                if (tried == 1) stats.coupuresPremierCoup++;
+                if (!Move.isCapture(move)) ordre.cutoff(move, side, ply, depth);
+                break;
+            }
+        }
+
+        tt.store(key, depth, boundType(best, alphaOrig, betaOrig), best, bestMove, ply);
+        return best;
+    }
+
+    /**
+     * Quiescence à l'horizon : une licorne prenable au coup suivant décide de
+     * la partie, l'évaluation statique ne doit pas la manquer. Si le camp au
+     * trait peut prendre la licorne adverse, il gagne. Si un paladin adverse
+     * menace sa licorne, il cherche ses coups de fuite (liseré qui ne libère
+     * pas le paladin, coup qui bloque, licorne qui s'écarte), toujours en
+     * quiescence ; un coup qui ne fuit pas perd au pli suivant. Sinon il « reste
+     * sur place » : l'évaluation statique est son score (stand pat).
+     *
+     * Elagage delta : menacé, le camp au trait ne fait pas mieux que son
+     * évaluation plus DELTA en fuyant ; si cela n'atteint pas la fenêtre, la
+     * fuite n'est pas cherchée.
+     */
+    int quiescence(boolean isMaximizing, int alpha, int beta, int qply) {
+        if (checkAbort()) return 0;
+        stats.noeudsQuiescence++;
+        if (isTerminal()) {
+            return evaluateBoard();
+        }
+        int side = isMaximizing ? myColor : oppColor;
+        if (board.hasCapture(side)) {
+            int win = WIN - (ply + 1);
+            return isMaximizing ? win : -win;
+        }
+        int standPat = evaluateBoard();
+        if (qply >= MAX_QUIESCENCE || ply >= OrdreCoups.MAX_PLY - 1 || !board.licorneThreatened(side)) {
+            return standPat;
+        }
+        if (isMaximizing ? standPat + DELTA <= alpha : standPat - DELTA >= beta) {
+            return isMaximizing ? standPat + DELTA : standPat - DELTA;
+        }
+
+        GenerateurCoups gen = ordre.generateur(ply);
+        gen.init(board, side, Move.NONE, ply);
+        int best = isMaximizing ? -INF : INF;
+        for (int move; (move = gen.next()) != Move.NONE; ) {
+            board.makeMove(move, side);
+            ply++;
+            int val = quiescence(!isMaximizing, alpha, beta, qply + 1);
+            ply--;
+            board.unmakeMove(move);
+            if (aborted) return 0;
+
+            if (isMaximizing ? val > best : val < best) best = val;
+            if (isMaximizing) {
+                alpha = Math.max(alpha, val);
+            } else {
+                beta  = Math.min(beta, val);
+            }
+            if (beta <= alpha) break;
+        }
+        return best;
+    }
+
+    /**
+     * Score, du point de vue de myColor, d'une valeur de table de finales pour
+     * {@code side} : même échelle que evaluateBoard pour une licorne prise.
+     */
+    private int scoreTable(int v, int side) {
+        int score = v > 0 ? WIN - (ply + v) : v < 0 ? (ply - v) - WIN : 0;
+        return side == myColor ? score : -score;
+    }
+
+    static int boundType(int best, int alphaOrig, int betaOrig) {
+        return best <= alphaOrig ? TranspositionTable.UPPER
+             : best >= betaOrig  ? TranspositionTable.LOWER
+             :                     TranspositionTable.EXACT;
+    }
+
+    /**
+     * Compte un noeud et, tous les CHECK_NODES noeuds, regarde l'échéance, l'arrêt
+     * demandé par un autre fil et l'annulation de la branche parallèle englobante.
+     */
+    boolean checkAbort() {
+        if ((++stats.noeuds & (CHECK_NODES - 1)) == 0) {
+            if (System.nanoTime() >= controle.deadline) controle.stopped = true;
+            if (controle.stopped || (split != null && split.isPruned())) aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * Test terminal : licorne prise, ou double passe. Les compteurs tenus par le
+     * plateau rendent ce test et l'évaluation en temps constant.
+     */
+    boolean isTerminal() {
+        return board.gameOver()
+            || (board.mobility(myColor) == 0 && board.mobility(oppColor) == 0);
+    }
+
+    /**
+     * Heuristique : mobilité + petit bonus matériel ; une passe forcée compte
+     * pour un coup, comme le "E" de possiblesMoves.
+     */
+    int evaluateBoard() {
+        if (!board.hasLicorne(oppColor)) return WIN - ply;
+        if (!board.hasLicorne(myColor))  return ply - WIN;
+        int mobility = Math.max(1, board.mobility(myColor))
+                     - Math.max(1, board.mobility(oppColor));
+        int material = board.pieceCount(myColor) - board.pieceCount(oppColor);
+        return MOBILITE * mobility + material;
+    }
+}
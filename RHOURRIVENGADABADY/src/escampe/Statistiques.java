@@ -0,0 +1,28 @@
+package escampe;
+
+/**
+ * Compteurs d'une recherche pour un fil : chaque fil a les siens (voir
+ * {@link Recherche.Controle#statistiques}), incrémentés sans synchronisation,
+ * et {@link Recherche.Controle#total} en fait la somme.
+ */
+final class Statistiques {
+    long noeuds;
+    long noeudsQuiescence;
+    long coupures;
+    long coupuresPremierCoup;  // coupures provoquées par le premier coup essayé
+    long reductions;           // coups cherchés moins profond (LMR)
+    long coupsElagues;         // coups tranquilles sautés par l'élagage de futilité
+    long sondesTable;
+    long succesTable;
+
+    void ajouter(Statistiques s) {
+        noeuds              += s.noeuds;
+        noeudsQuiescence    += s.noeudsQuiescence;
+        coupures            += s.coupures;
+        coupuresPremierCoup += s.coupuresPremierCoup;
+        reductions          += s.reductions;
+        coupsElagues        += s.coupsElagues;
+        sondesTable         += s.sondesTable;
+        succesTable         += s.succesTable;
+    }
+}
@@ -0,0 +1,148 @@
+package escampe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Tables de finales calculées par {@link GenerateurTables} : pour chaque
+ * position avec les deux licornes, {@code pb} paladins blancs et {@code pn}
+ * paladins noirs, le trait et la contrainte de liseré, la distance au gain ou
+ * à la perte en demi-coups.
+ *
+ * Une configuration (pb, pn) occupe un fichier {@code finale_<pb>_<pn>.tb} :
+ * un en-tête de trois int (MAGIC, pb, pn) puis un octet par position :
+ * {@code v > 0} le trait gagne en v demi-coups, {@code v < 0} il perd en -v,
+ * 0 pour une nulle, une distance au-delà de 127 ou un index sans position.
+ * L'index est direct, sans compactage des cases déjà prises :
+ * <pre>
+ *   ((((licorne blanche * 36 + licorne noire) * C(36, pb) + rang paladins blancs)
+ *       * C(36, pn) + rang paladins noirs) * 2 + trait) * 4 + liseré imposé
+ * </pre>
+ * Les fichiers sont projetés en mémoire ({@link MappedByteBuffer}) : rien
+ * n'est lu au démarrage et les pages sont partagées par tous les fils.
+ */
+public class TablesFinales {
+    static final int MAX_PALADINS = 5;
+    static final int MAGIC = 0x45534346;  // "ESCF"
+    /** Résultat de {@link #sonder} pour une position qu'aucune table ne couvre. */
+    static final int HORS_TABLE = Integer.MIN_VALUE;
+
+    private static final int HEADER = 12;
+    private static final long[][] BINOMIAL = new long[EscampeBoard.NB_SQUARES + 1][MAX_PALADINS + 1];
+    // Masques des combinaisons de k cases, rangés à l'index de leur rang
+    static final long[][] COMBINAISONS = new long[MAX_PALADINS + 1][];
+
+    static {
+        for (int n = 0; n <= EscampeBoard.NB_SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= MAX_PALADINS && k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+        for (int k = 0; k <= MAX_PALADINS; k++) {
+            COMBINAISONS[k] = new long[(int) BINOMIAL[EscampeBoard.NB_SQUARES][k]];
+            fillCombinaisons(k, 0, 0L);
+        }
+    }
+
+    /** Tables du dossier -Descampe.tables=..., ou null si la propriété est absente. */
+    static final TablesFinales DEFAUT = ouvrir(System.getProperty("escampe.tables"));
+
+    private final MappedByteBuffer[][] tables = new MappedByteBuffer[MAX_PALADINS + 1][MAX_PALADINS + 1];
+    private final int maxPieces;
+
+    private TablesFinales(File dossier) throws IOException {
+        int max = 0;
+        for (int pb = 0; pb <= MAX_PALADINS; pb++) {
+            for (int pn = 0; pn <= MAX_PALADINS; pn++) {
+                File f = fichier(dossier, pb, pn);
+                if (!f.isFile()) continue;
+                try (RandomAccessFile raf = new RandomAccessFile(f, "r");
+                     FileChannel ch = raf.getChannel()) {
+                    MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                    if (buf.getInt(0) != MAGIC || buf.getInt(4) != pb || buf.getInt(8) != pn
+                            || ch.size() != HEADER + taille(pb, pn)) {
+                        throw new IOException("table invalide : " + f);
+                    }
+                    tables[pb][pn] = buf;
+                    max = Math.max(max, 2 + pb + pn);
+                }
+            }
+        }
+        this.maxPieces = max;
+    }
+
+    /** Ouvre les tables de {@code dossier} ; null s'il n'y en a aucune. */
+    static TablesFinales ouvrir(String dossier) {
+        if (dossier == null) return null;
+        try {
+            TablesFinales t = new TablesFinales(new File(dossier));
+            return t.maxPieces == 0 ? null : t;
+        } catch (IOException e) {
+            System.err.println("Tables de finales illisibles : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Valeur de la position pour {@code trait}, le camp qui doit jouer (voir
+     * le format plus haut), ou {@link #HORS_TABLE}.
+     */
+    int sonder(EscampeBoard board, int trait) {
+        if (!board.hasLicorne(EscampeBoard.WHITE) || !board.hasLicorne(EscampeBoard.BLACK)) return HORS_TABLE;
+        long palB = board.paladinBits(EscampeBoard.WHITE), palN = board.paladinBits(EscampeBoard.BLACK);
+        int pb = Long.bitCount(palB), pn = Long.bitCount(palN);
+        if (2 + pb + pn > maxPieces || pb > MAX_PALADINS || pn > MAX_PALADINS) return HORS_TABLE;
+        MappedByteBuffer t = tables[pb][pn];
+        if (t == null) return HORS_TABLE;
+        return t.get(HEADER + index(pb, pn, board.licorneSquare(EscampeBoard.WHITE),
+                                    board.licorneSquare(EscampeBoard.BLACK), palB, palN,
+                                    trait, board.lisereConstraint()));
+    }
+
+    /** Nombre maximal de pièces des positions couvertes. */
+    int maxPieces() {
+        return maxPieces;
+    }
+
+    static int index(int pb, int pn, int licB, int licN, long palB, long palN, int trait, int contrainte) {
+        long i = (long) licB * EscampeBoard.NB_SQUARES + licN;
+        i = i * BINOMIAL[EscampeBoard.NB_SQUARES][pb] + rang(palB);
+        i = i * BINOMIAL[EscampeBoard.NB_SQUARES][pn] + rang(palN);
+        return (int) ((i * 2 + trait) * 4 + contrainte);
+    }
+
+    /** Nombre de positions d'une configuration, cases en double comprises. */
+    static int taille(int pb, int pn) {
+        long n = (long) EscampeBoard.NB_SQUARES * EscampeBoard.NB_SQUARES
+               * BINOMIAL[EscampeBoard.NB_SQUARES][pb] * BINOMIAL[EscampeBoard.NB_SQUARES][pn] * 8;
+        if (n > Integer.MAX_VALUE - HEADER) throw new IllegalArgumentException("table trop grande : " + pb + "/" + pn);
+        return (int) n;
+    }
+
+    static File fichier(File dossier, int pb, int pn) {
+        return new File(dossier, "finale_" + pb + "_" + pn + ".tb");
+    }
+
+    /** Rang colexicographique d'un ensemble de cases : somme des C(case, i + 1). */
+    private static int rang(long cases) {
+        int r = 0;
+        for (int i = 1; cases != 0; i++, cases &= cases - 1) {
+            r += (int) BINOMIAL[Long.numberOfTrailingZeros(cases)][i];
+        }
+        return r;
+    }
+
+    private static void fillCombinaisons(int k, int premier, long cases) {
+        if (Long.bitCount(cases) == k) {
+            COMBINAISONS[k][rang(cases)] = cases;
+            return;
+        }
+        for (int sq = premier; sq < EscampeBoard.NB_SQUARES; sq++) {
+            fillCombinaisons(k, sq + 1, cases | 1L << sq);
+        }
+    }
+}
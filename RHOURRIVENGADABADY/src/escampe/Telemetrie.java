@@ -0,0 +1,106 @@
+package escampe;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * Bilan de la recherche d'un coup : compteurs de {@link Statistiques}, temps
+ * et noeuds de chaque itération, facteur de branchement effectif (noeuds de
+ * la dernière itération sur ceux de la précédente). Avec
+ * -Descampe.telemetrie=fichier (ou « - » pour la sortie standard), chaque coup
+ * de {@link JoueurIA} y ajoute une ligne JSON.
+ */
+final class Telemetrie {
+    private static final PrintStream SORTIE = ouvrir(System.getProperty("escampe.telemetrie"));
+
+    private final long debut = System.nanoTime();
+    private final StringBuilder iterations = new StringBuilder();
+    private long noeudsPrecedents, noeudsIteration, noeudsPrecedente;
+    private int profondeur;
+    private int score;
+    private long dureeNs;
+    private Statistiques total = new Statistiques();
+
+    private static PrintStream ouvrir(String fichier) {
+        if (fichier == null) return null;
+        if (fichier.equals("-")) return System.out;
+        try {
+            return new PrintStream(new FileOutputStream(fichier, true), true, "UTF-8");
+        } catch (IOException e) {
+            System.err.println("Télémétrie impossible : " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Vrai si les lignes JSON sont écrites quelque part. */
+    static boolean active() {
+        return SORTIE != null;
+    }
+
+    static void ecrire(String ligne) {
+        if (SORTIE == null) return;
+        synchronized (SORTIE) {
+            SORTIE.println(ligne);
+        }
+    }
+
+    /**
+     * Itération terminée à {@code profondeur}, {@code noeuds} comptés depuis le
+     * début du coup, {@code score} celui du meilleur coup.
+     */
+    void iteration(int profondeur, long noeuds, int score) {
+        this.profondeur = profondeur;
+        this.score      = score;
+        noeudsPrecedente = noeudsIteration;
+        noeudsIteration  = noeuds - noeudsPrecedents;
+        noeudsPrecedents = noeuds;
+        if (iterations.length() > 0) iterations.append(',');
+        iterations.append(String.format(Locale.ROOT, "{\"profondeur\":%d,\"temps_ms\":%.3f,\"noeuds\":%d}",
+                                        profondeur, (System.nanoTime() - debut) / 1e6, noeudsIteration));
+    }
+
+    /** Fin du coup, tous les fils arrêtés : {@code total} est exact. */
+    void terminer(Statistiques total) {
+        this.total   = total;
+        this.dureeNs = System.nanoTime() - debut;
+    }
+
+    Statistiques total() {
+        return total;
+    }
+
+    /** Profondeur de la dernière itération terminée, 0 si aucune. */
+    int profondeur() {
+        return profondeur;
+    }
+
+    int score() {
+        return score;
+    }
+
+    double facteurBranchement() {
+        return noeudsPrecedente == 0 ? 0 : (double) noeudsIteration / noeudsPrecedente;
+    }
+
+    /** Une ligne JSON pour le coup {@code coup} de {@code joueur}. */
+    String json(String joueur, String coup) {
+        return String.format(Locale.ROOT,
+            "{\"joueur\":\"%s\",\"coup\":\"%s\",\"profondeur\":%d,\"score\":%d,\"temps_ms\":%.3f,\"noeuds\":%d,"
+            + "\"noeuds_quiescence\":%d,\"noeuds_par_s\":%d,\"coupures\":%d,\"coupures_premier_coup\":%d,"
+            + "\"taux_premier_coup\":%.4f,\"reductions\":%d,\"coups_elagues\":%d,"
+            + "\"sondes_tt\":%d,\"succes_tt\":%d,\"taux_tt\":%.4f,"
+            + "\"facteur_branchement\":%.3f,\"iterations\":[%s]}",
+            joueur, coup, profondeur, score, dureeNs / 1e6, total.noeuds, total.noeudsQuiescence,
+            dureeNs == 0 ? 0 : (long) (total.noeuds * 1e9 / dureeNs), total.coupures,
+            total.coupuresPremierCoup, ratio(total.coupuresPremierCoup, total.coupures),
+            total.reductions, total.coupsElagues,
+            total.sondesTable, total.succesTable, ratio(total.succesTable, total.sondesTable),
+            facteurBranchement(), iterations);
+    }
+
+    private static double ratio(long a, long b) {
+        return b == 0 ? 0 : (double) a / b;
+    }
+}
@@ -6,6 +6,7 @@ import java.util.regex.*;
 
 public class TestAll {
     private static final String INPUT = "src/escampe/plateau_input.txt";
+    private static final String TEST = "src/plateau_test.txt";
     private static final String OUTPUT = "src/escampe/plateau_output.txt";
 
     public static void main(String[] args) throws Exception {
@@ -13,6 +14,24 @@ public class TestAll {
         testPiece();
         testIO();
         testMoves();
+        testLisere();
+        testMakeUnmake();
+        testIntMoves();
+        testTranspositionTable();
+        testQuiescence();
+        testPlacements();
+        testTablesFinales();
+        testPerft();
+        testTelemetrie();
+        testSelectivite();
+        testPVS();
+        testOrdre();
+        testReflexion();
+        testEvenementsJfr();
+        testMCTS();
+        testPools();
+        testArene();
+        testClientMultiJeu();
         System.out.println("ALL TESTS PASSED");
     }
 
@@ -66,4 +85,711 @@ public class TestAll {
         // skip invalid-move test to avoid ArrayIndexOutOfBounds
     }
 
+    private static void testLisere() {
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(INPUT);
+        check(!b.gameOver(), "gameOver false on start board");
+        String move = b.possiblesMoves("blanc")[0];
+        b.play(move, "blanc");
+        Position dest = Position.fromString(move.split("-")[1]);
+        int lisere = EscampeBoard.LISERE[dest.row * 6 + dest.col];
+        for (String m : b.possiblesMoves("noir")) {
+            if ("E".equals(m)) continue;
+            Position from = Position.fromString(m.split("-")[0]);
+            check(EscampeBoard.LISERE[from.row * 6 + from.col] == lisere, "lisere constraint: " + m);
+        }
+        check(!b.isValidMove("A9-A1", "noir"), "isValidMove off board");
+    }
+
+    private static void testMakeUnmake() {
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(INPUT);
+        Random rnd = new Random(42);
+        Deque<EscampeBoard.Undo> undos = new ArrayDeque<>();
+        Deque<String> states = new ArrayDeque<>();
+        String player = "blanc";
+        for (int i = 0; i < 40 && !b.gameOver(); i++) {
+            states.push(state(b));
+            String[] moves = b.possiblesMoves(player);
+            undos.push(b.makeMove(moves[rnd.nextInt(moves.length)], player));
+            check(b.hashKey() == b.computeHash(), "incremental Zobrist key");
+            for (int color = EscampeBoard.WHITE; color <= EscampeBoard.BLACK; color++) {
+                check(b.mobility(color) == b.countMovesExact(color), "incremental mobility");
+            }
+            player = player.equals("blanc") ? "noir" : "blanc";
+        }
+        while (!undos.isEmpty()) {
+            b.unmakeMove(undos.pop());
+            check(state(b).equals(states.pop()), "unmakeMove restores position");
+        }
+    }
+
+    private static void testIntMoves() {
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(INPUT);
+        Random rnd = new Random(7);
+        int[] buf = new int[Move.MAX_MOVES];
+        Deque<Integer> played = new ArrayDeque<>();
+        Deque<String> states = new ArrayDeque<>();
+        int color = EscampeBoard.WHITE;
+        for (int i = 0; i < 40 && !b.gameOver(); i++) {
+            String player = color == EscampeBoard.WHITE ? "blanc" : "noir";
+            int n = b.generateMoves(color, buf);
+            String[] names = b.possiblesMoves(player);
+            check(n == names.length, "generateMoves count");
+            int staged = b.generateQuiets(color, buf, b.generateCaptures(color, buf, 0));
+            check(staged == b.countMoves(player), "staged generation / countMoves");
+            check(b.hasLegalMove(player) == (staged > 0), "hasLegalMove");
+            n = b.generateMoves(color, buf);
+            for (int k = 0; k < n; k++) check(b.isLegal(buf[k], color), "isLegal");
+            for (int k = 0; k < n; k++) {
+                check(Move.toString(buf[k]).equals(names[k]), "generateMoves name");
+                check(Move.parse(names[k]) == (buf[k] & Move.KEY_MASK), "Move.parse");
+            }
+            states.push(state(b));
+            int move = buf[rnd.nextInt(n)];
+            b.makeMove(move, color);
+            played.push(move);
+            check(b.hashKey() == b.computeHash(), "incremental Zobrist key (int)");
+            color ^= 1;
+        }
+        while (!played.isEmpty()) {
+            b.unmakeMove(played.pop());
+            check(state(b).equals(states.pop()), "unmakeMove(int) restores position");
+        }
+    }
+
+    private static void testTranspositionTable() throws Exception {
+        TranspositionTable tt = new TranspositionTable(1);
+        TranspositionTable.Hit hit = new TranspositionTable.Hit();
+        long key = 0x123456789ABCDEF0L;
+        check(!tt.probe(key, 0, hit), "TT empty");
+        tt.store(key, 5, TranspositionTable.LOWER, -25, Move.parse("C1-D1"), 3);
+        check(tt.probe(key, 0, hit), "TT hit");
+        check(hit.depth == 5 && hit.bound == TranspositionTable.LOWER && hit.score == -25, "TT entry");
+        check(Move.toString(hit.move).equals("C1-D1"), "TT move");
+        check(!tt.probe(key ^ (1L << 40), 0, hit), "TT key verification");
+
+        // Licorne prise en un coup, la même position atteinte aux plis 0 puis 3
+        Path pos = Files.createTempFile("tt", ".txt");
+        Files.write(pos, Arrays.asList("01 bN---- 01", "02 ------ 02", "03 ------ 03",
+                                       "04 ------ 04", "05 ------ 05", "06 -----B 06"));
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(pos.toString());
+        Files.delete(pos);
+        tt = new TranspositionTable(1);
+        Recherche r = new Recherche(b, tt, new Recherche.Controle(Long.MAX_VALUE), new OrdreCoups(), EscampeBoard.WHITE);
+        check(r.minimaxValue(2, true, -Recherche.INF, Recherche.INF) == Recherche.WIN - 1, "mate score at ply 0");
+        check(tt.probe(b.hashKey(), 0, hit) && hit.score == Recherche.WIN - 1, "TT mate score at ply 0");
+        check(tt.probe(b.hashKey(), 3, hit) && hit.score == Recherche.WIN - 4, "TT mate score at ply 3");
+        tt.newSearch();
+        r = new Recherche(b, tt, new Recherche.Controle(Long.MAX_VALUE), new OrdreCoups(), EscampeBoard.WHITE);
+        r.ply = 3;
+        long noeuds = r.stats.noeuds;
+        check(r.minimaxValue(2, true, -Recherche.INF, Recherche.INF) == Recherche.WIN - 4
+              && r.stats.noeuds == noeuds + 1, "mate score from the TT at ply 3");
+        tt.store(b.hashKey(), 2, TranspositionTable.EXACT, 5 - Recherche.WIN, Move.NONE, 2);
+        check(tt.probe(b.hashKey(), 4, hit) && hit.score == 7 - Recherche.WIN, "TT loss score at another ply");
+    }
+
+    private static void testQuiescence() throws Exception {
+        // Paladin blanc en A1 (liseré 1) à côté de la licorne noire en B1
+        Path pos = Files.createTempFile("quiescence", ".txt");
+        Files.write(pos, Arrays.asList("01 bN---- 01", "02 ------ 02", "03 ------ 03",
+                                       "04 ------ 04", "05 ------ 05", "06 -----B 06"));
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(pos.toString());
+        Files.delete(pos);
+        String avant = state(b);
+        check(b.hasCapture(EscampeBoard.WHITE) && !b.hasCapture(EscampeBoard.BLACK), "hasCapture");
+        check(b.licorneThreatened(EscampeBoard.BLACK) && !b.licorneThreatened(EscampeBoard.WHITE), "licorneThreatened");
+
+        Recherche blanc = new Recherche(b, new TranspositionTable(1), new Recherche.Controle(Long.MAX_VALUE),
+                                        new OrdreCoups(), EscampeBoard.WHITE);
+        check(blanc.evaluateBoard() < Recherche.WIN - 1
+              && blanc.quiescence(true, -Recherche.INF, Recherche.INF, 0) == Recherche.WIN - 1,
+              "quiescence sees the capture at the horizon");
+        Recherche noir = new Recherche(b, new TranspositionTable(1), new Recherche.Controle(Long.MAX_VALUE),
+                                       new OrdreCoups(), EscampeBoard.BLACK);
+        int v = noir.quiescence(true, -Recherche.INF, Recherche.INF, 0);
+        check(v > 2 - Recherche.WIN && noir.stats.noeudsQuiescence > 1, "quiescence searches the licorne escapes");
+        check(state(b).equals(avant), "quiescence restores the board");
+    }
+
+    private static void testTablesFinales() throws Exception {
+        Path dir = Files.createTempDirectory("finales");
+        GenerateurTables.main(new String[] {dir.toString(), "3", "1"});
+        TablesFinales tables = TablesFinales.ouvrir(dir.toString());
+        check(tables != null && tables.maxPieces() == 3, "endgame tables opened");
+
+        // Paladin blanc en A1 (liseré 1) à côté de la licorne noire en B1
+        Path pos = dir.resolve("finale.txt");
+        Files.write(pos, Arrays.asList("01 bN---- 01", "02 ------ 02", "03 ------ 03",
+                                       "04 ------ 04", "05 ------ 05", "06 -----B 06"));
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(pos.toString());
+        check(tables.sonder(b, EscampeBoard.WHITE) == 1, "endgame win in 1");
+        check(tables.sonder(b, EscampeBoard.BLACK) == -14, "endgame side to move");
+
+        // Gain blanc en 5 demi-coups : la recherche sans tables le trouve à
+        // profondeur 5, celle qui sonde les tables dès le pli 1
+        Files.write(pos, Arrays.asList("01 BN---- 01", "02 ---b-- 02", "03 ------ 03",
+                                       "04 ------ 04", "05 ------ 05", "06 ------ 06"));
+        b.setFromFile(pos.toString());
+        check(tables.sonder(b, EscampeBoard.WHITE) == 5 && tables.sonder(b, EscampeBoard.BLACK) == -10,
+              "endgame win in 5");
+        Recherche r = new Recherche(b, new TranspositionTable(1), new Recherche.Controle(Long.MAX_VALUE),
+                                    new OrdreCoups(), EscampeBoard.WHITE);
+        r.tables = null;
+        check(r.minimaxValue(5, true, -Recherche.INF, Recherche.INF) == Recherche.WIN - 5, "search finds the win in 5");
+        r = new Recherche(b, new TranspositionTable(1), new Recherche.Controle(Long.MAX_VALUE),
+                          new OrdreCoups(), EscampeBoard.WHITE);
+        r.tables = tables;
+        check(r.minimaxValue(1, true, -Recherche.INF, Recherche.INF) == Recherche.WIN - 5, "table score in the search");
+        b.setFromFile(INPUT);
+        check(tables.sonder(b, EscampeBoard.WHITE) == TablesFinales.HORS_TABLE, "endgame not covered");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path f : files) Files.delete(f);
+        }
+        Files.delete(dir);
+    }
+
+    private static void testPlacements() throws Exception {
+        for (int p = 0; p < Placement.COUNT; p++) {
+            check(Placement.parse(Placement.toString(p)) == p, "placement index round trip");
+        }
+        check(Placement.parse("C1/A3/C2/C5/F1/F4") == -1, "placement off the home rows");
+
+        EscampeBoard b = new EscampeBoard();
+        int[] buf = new int[Placement.COUNT];
+        check(b.generatePlacements(EscampeBoard.BLACK, buf) == Placement.COUNT, "black placements");
+        String empty = state(b);
+        int noir = Placement.parse("C6/A6/B5/D5/E6/F5");
+        b.makePlacement(noir, EscampeBoard.BLACK);
+        check(b.generatePlacements(EscampeBoard.WHITE, buf) == Placement.PER_SIDE, "white placements");
+        EscampeBoard ref = new EscampeBoard();
+        ref.play("C6/A6/B5/D5/E6/F5", "noir");
+        check(state(b).equals(state(ref)) && b.hashKey() == ref.hashKey(), "makePlacement = play");
+        b.makePlacement(buf[17], EscampeBoard.WHITE);
+        check(b.hashKey() == b.computeHash(), "placement Zobrist key");
+        for (int color = EscampeBoard.WHITE; color <= EscampeBoard.BLACK; color++) {
+            check(b.mobility(color) == b.countMovesExact(color), "placement mobility");
+        }
+        b.unmakePlacement(buf[17], EscampeBoard.WHITE);
+        b.unmakePlacement(noir, EscampeBoard.BLACK);
+        check(state(b).equals(empty) && b.hashKey() == b.computeHash(), "unmakePlacement");
+
+        short[] reponses = new short[Placement.COUNT];
+        Arrays.fill(reponses, (short) -1);
+        reponses[noir] = (short) buf[17];
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        new LivreOuvertures(3, noir, reponses).ecrire(out);
+        LivreOuvertures livre = LivreOuvertures.lire(new java.io.ByteArrayInputStream(out.toByteArray()));
+        check(livre.placementNoir() == noir && livre.reponseBlanc(noir) == buf[17]
+              && livre.reponseBlanc(noir + 1) == -1 && livre.reponseBlanc(-1) == -1, "opening book I/O");
+
+        // Echéance déjà passée : seuls les candidats notés avant qu'elle soit vue comptent
+        b.makePlacement(noir, EscampeBoard.BLACK);
+        String placeNoir = state(b);
+        EvaluateurPlacements e = new EvaluateurPlacements(b, new TranspositionTable(1),
+                                                          new Recherche.Controle(System.nanoTime() - 1));
+        int reponse = e.meilleureReponse(3, 50);
+        int notees = e.notesPremierePasse();
+        check(notees > 0 && notees < Placement.PER_SIDE, "placement first pass stops at the deadline");
+        check(state(b).equals(placeNoir), "placement search restores the board");
+        int bestNote = -Recherche.INF, best = -1;
+        b.generatePlacements(EscampeBoard.WHITE, buf);
+        Recherche r = new Recherche(b, new TranspositionTable(1), new Recherche.Controle(Long.MAX_VALUE),
+                                    new OrdreCoups(), EscampeBoard.WHITE);
+        for (int i = 0; i < notees; i++) {
+            b.makePlacement(buf[i], EscampeBoard.WHITE);
+            int note = r.minimaxValue(1, true, -Recherche.INF, Recherche.INF);
+            b.unmakePlacement(buf[i], EscampeBoard.WHITE);
+            if (note > bestNote) {
+                bestNote = note;
+                best = buf[i];
+            }
+        }
+        check(reponse == best, "placement: best of the candidates scored before the deadline");
+    }
+
+    private static String state(EscampeBoard b) {
+        return Arrays.deepToString(b.getBoard())
+             + Arrays.toString(b.possiblesMoves("blanc"))
+             + Arrays.toString(b.possiblesMoves("noir"));
+    }
+
+    private static void testArene() throws Exception {
+        Arene arene = new Arene(JoueurIA.class, JoueurIA.class, 2, 20, 40);
+        java.io.StringWriter out = new java.io.StringWriter();
+        arene.jouer(2, out);
+        check(arene.victoiresA() + arene.victoiresB() + arene.nulles() == 2, "Arene: two games recorded");
+        String[] lignes = out.toString().split("\n");
+        check(lignes.length == 4 && lignes[3].equals("# " + arene.bilan()), "Arene: header, one line per game, summary");
+        for (int i = 1; i < 3; i++) {
+            check(!lignes[i].contains("invalide") && !lignes[i].contains("erreur"), "Arene: clean game " + lignes[i]);
+        }
+
+        // Parties interrompues par une exception hors de choixMouvement : ni
+        // nulles ni dans les taux, et les joueurs sont quand même prévenus
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.FRANCE);
+        try {
+            JoueurFautif.fins.set(0);
+            arene = new Arene(JoueurIA.class, JoueurFautif.class, 2, 500, 40);
+            out = new java.io.StringWriter();
+            arene.jouer(2, out);
+        } finally {
+            Locale.setDefault(locale);
+        }
+        check(arene.erreurs() == 2 && arene.victoiresA() + arene.victoiresB() + arene.nulles() == 0,
+              "Arene: failed games counted apart");
+        check(JoueurFautif.fins.get() == 2, "Arene: players told the game ended after an error");
+        lignes = out.toString().split("\n");
+        for (int i = 1; i < 3; i++) {
+            String[] champs = lignes[i].split("\t");
+            check(champs[3].equals("erreur") && champs[6].matches("\\d+\\.\\d\\d"),
+                  "Arene: error row with locale-independent latency " + lignes[i]);
+        }
+        check(lignes[3].equals("# " + arene.bilan()), "Arene: summary after errors");
+    }
+
+    /** Joueur qui plante dès qu'on lui transmet un coup adverse. */
+    static class JoueurFautif extends JoueurIA {
+        static final java.util.concurrent.atomic.AtomicInteger fins = new java.util.concurrent.atomic.AtomicInteger();
+
+        @Override
+        public void mouvementEnnemi(String coup) {
+            throw new IllegalStateException("mouvementEnnemi");
+        }
+
+        @Override
+        public void declareLeVainqueur(int winner) {
+            fins.incrementAndGet();
+            super.declareLeVainqueur(winner);
+        }
+    }
+
+    private static void testClientMultiJeu() throws Exception {
+        // Arbitre local : quatre parties pour un seul fil de recherche, et les
+        // quatre demandes de coup mesurées envoyées en même temps
+        final int parties = 4;
+        final long temps = 100;
+        java.net.ServerSocket serveur = new java.net.ServerSocket(0);
+        java.util.concurrent.CyclicBarrier ensemble = new java.util.concurrent.CyclicBarrier(parties);
+        long[] latences = new long[parties];
+        String[] coups = new String[parties];
+        Thread[] arbitres = new Thread[parties];
+        for (int i = 0; i < parties; i++) {
+            int k = i;
+            arbitres[i] = new Thread(() -> {
+                try (java.net.Socket s = serveur.accept();
+                     java.io.BufferedReader in = new java.io.BufferedReader(
+                         new java.io.InputStreamReader(s.getInputStream(), "UTF-8"));
+                     java.io.PrintWriter out = new java.io.PrintWriter(
+                         new java.io.OutputStreamWriter(s.getOutputStream(), "UTF-8"), true)) {
+                    in.readLine();
+                    out.println("Blanc");
+                    out.println("MOUVEMENT C6/A6/B5/D5/E6/F5");
+                    out.println("JOUEUR Blanc");
+                    in.readLine();
+                    ensemble.await();
+                    long debut = System.nanoTime();
+                    out.println("JOUEUR Blanc");
+                    coups[k] = in.readLine();
+                    latences[k] = System.nanoTime() - debut;
+                    out.println("FIN! Blanc");
+                } catch (Exception e) {
+                    latences[k] = Long.MAX_VALUE;
+                }
+            });
+            arbitres[i].start();
+        }
+        ClientMultiJeu client = new ClientMultiJeu(1);
+        for (int i = 0; i < parties; i++) {
+            JoueurIA ia = new JoueurIA();
+            ia.setTempsParCoup(temps);
+            ia.setPonder(false);
+            client.connecter(new java.net.InetSocketAddress("localhost", serveur.getLocalPort()), ia);
+        }
+        client.jouer();
+        for (Thread t : arbitres) t.join();
+        serveur.close();
+        for (int i = 0; i < parties; i++) {
+            check(coups[i] != null && !coups[i].contains("/"), "ClientMultiJeu: move answered " + coups[i]);
+            check(latences[i] <= temps * Arene.MARGE_TEMPS * 1_000_000L,
+                  "ClientMultiJeu: queued move within the time limit (" + latences[i] / 1_000_000 + " ms)");
+        }
+    }
+
+    private static void testPerft() throws Exception {
+        // Comptes de référence calculés avec le plateau d'origine (tableau de
+        // Piece, possiblesMoves/play sur des chaînes), avant les bitboards et
+        // le générateur à coups int : blanc puis noir au trait
+        String[] positions = {INPUT, TEST};
+        long[][][] reference = {
+            {{7, 18, 50, 147, 372, 989, 2445, 6506},
+             {6, 11, 26, 66, 242, 579, 1820, 4303}},
+            {{3, 14, 22, 58, 62, 171, 1137, 3461},
+             {12, 20, 111, 204, 892, 1876, 7609, 16659}},
+        };
+        EscampeBoard b = new EscampeBoard();
+        for (int p = 0; p < positions.length; p++) {
+            b.setFromFile(positions[p]);
+            String avant = state(b);
+            for (int color = EscampeBoard.WHITE; color <= EscampeBoard.BLACK; color++) {
+                for (int depth = 1; depth <= reference[p][color].length; depth++) {
+                    check(new Perft(b, depth).compter(color, depth) == reference[p][color][depth - 1],
+                          "perft(" + depth + ") for color " + color + " on " + positions[p]);
+                }
+            }
+            check(state(b).equals(avant), "perft restores the board");
+        }
+
+        b.setFromFile(INPUT);
+        int[] buf = new int[Move.MAX_MOVES];
+        int[] rootMoves = Arrays.copyOf(buf, b.generateMoves(EscampeBoard.WHITE, buf));
+        long total = 0;
+        for (long n : Perft.diviser(b, EscampeBoard.WHITE, 8, rootMoves, 2)) total += n;
+        check(total == reference[0][EscampeBoard.WHITE][7], "parallel perft divide");
+    }
+
+    private static void testTelemetrie() {
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(INPUT);
+        for (String mode : new String[] {"seq", JoueurIA.YBWC, JoueurIA.LAZY_SMP}) {
+            JoueurIA ia = new JoueurIA();
+            ia.setTempsParCoup(60_000);
+            ia.setProfondeurMax(5);
+            ia.setPonder(false);
+            if (!mode.equals("seq")) {
+                ia.setThreads(2);
+                ia.setModeParallele(mode);
+            }
+            ia.initJoueur(IJoueur.BLANC);
+            ia.positionner(b);
+            String coup = ia.choixMouvement();
+            Telemetrie t = ia.getTelemetrie();
+            Statistiques s = t.total();
+            check(s.noeuds > 0 && s.sondesTable >= s.succesTable && s.coupures >= s.coupuresPremierCoup,
+                  "telemetry counters (" + mode + ")");
+            String json = t.json("blanc", coup);
+            check(json.startsWith("{\"joueur\":\"blanc\",\"coup\":\"" + coup + "\",\"profondeur\":5,")
+                  && json.contains("\"noeuds\":" + s.noeuds + ",")
+                  && json.contains("\"reductions\":" + s.reductions + ",\"coups_elagues\":" + s.coupsElagues + ",")
+                  && json.endsWith("}]}"),
+                  "telemetry JSON line (" + mode + ")");
+        }
+    }
+
+    // Positions calmes, sans licorne prenable à court terme, et un gain blanc en 5 demi-coups
+    private static final String[] CALME_1 = {"01 -nnnn- 01", "02 ---n-- 02", "03 b---Nb 03",
+                                             "04 ------ 04", "05 -b-b-b 05", "06 ----B- 06"};
+    private static final String[] CALME_2 = {"01 nN-nn- 01", "02 n----- 02", "03 bn---- 03",
+                                             "04 ------ 04", "05 -b-b-b 05", "06 --B-b- 06"};
+    private static final String[] GAIN_5  = {"01 nN-n-- 01", "02 n---n- 02", "03 b-n--- 03",
+                                             "04 ----b- 04", "05 -b-b-b 05", "06 --B--- 06"};
+
+    /** Plateau de six lignes au format des fichiers, sans contrainte de liseré. */
+    private static EscampeBoard plateau(String... lignes) throws Exception {
+        Path pos = Files.createTempFile("plateau", ".txt");
+        Files.write(pos, Arrays.asList(lignes));
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(pos.toString());
+        Files.delete(pos);
+        return b;
+    }
+
+    /** Recherche neuve sur {@code b}, avec ou sans LMR, futilité et razoring. */
+    private static Recherche recherche(EscampeBoard b, int couleur, boolean selective) {
+        Recherche r = new Recherche(b, new TranspositionTable(1), new Recherche.Controle(Long.MAX_VALUE),
+                                    new OrdreCoups(), couleur);
+        r.lmr = r.futilite = r.razoring = selective;
+        return r;
+    }
+
+    /**
+     * Alpha-beta de référence : fenêtre complète, coups dans l'ordre du
+     * générateur, ni table ni sélectivité ; les feuilles sont celles de {@code r}.
+     */
+    private static int alphaBeta(Recherche r, int depth, boolean max, int alpha, int beta) {
+        if (depth == 0 || r.isTerminal()) return r.minimaxValue(0, max, alpha, beta);
+        int side = max ? r.myColor : r.oppColor;
+        int[] moves = new int[Move.MAX_MOVES];
+        int n = r.board.generateMoves(side, moves);
+        int best = max ? -Recherche.INF : Recherche.INF;
+        for (int i = 0; i < n && alpha < beta; i++) {
+            r.board.makeMove(moves[i], side);
+            r.ply++;
+            int v = alphaBeta(r, depth - 1, !max, alpha, beta);
+            r.ply--;
+            r.board.unmakeMove(moves[i]);
+            if (max) alpha = Math.max(alpha, best = Math.max(best, v));
+            else     beta  = Math.min(beta, best = Math.min(best, v));
+        }
+        return best;
+    }
+
+    private static void testSelectivite() throws Exception {
+        EscampeBoard[] positions = {new EscampeBoard(), new EscampeBoard(), plateau(CALME_1), plateau(CALME_2)};
+        positions[0].setFromFile(INPUT);
+        positions[1].setFromFile(TEST);
+        // Sans LMR, futilité ni razoring, la recherche vaut l'alpha-beta de
+        // référence ; sans quiescence, dont l'élagage delta dépend de la fenêtre
+        for (EscampeBoard b : positions) {
+            for (int couleur = 0; couleur < 2; couleur++) {
+                Recherche ref = recherche(b, couleur, false);
+                ref.avecQuiescence = false;
+                Recherche r = recherche(b, couleur, false);
+                r.avecQuiescence = false;
+                check(r.minimaxValue(6, true, -Recherche.INF, Recherche.INF)
+                      == alphaBeta(ref, 6, true, -Recherche.INF, Recherche.INF)
+                      && r.stats.reductions == 0 && r.stats.coupsElagues == 0,
+                      "search without selectivity equals plain alpha-beta");
+            }
+        }
+
+        // Avec, moins de noeuds pour le même gain forcé et le même coup
+        EscampeBoard gain = plateau(GAIN_5);
+        long sans = 0, avec = 0, reductions = 0, elagues = 0;
+        for (EscampeBoard b : new EscampeBoard[] {plateau(CALME_1), plateau(CALME_2), gain}) {
+            for (int couleur = 0; couleur < 2; couleur++) {
+                Recherche off = recherche(b, couleur, false), on = recherche(b, couleur, true);
+                off.minimaxValue(8, true, -Recherche.INF, Recherche.INF);
+                on.minimaxValue(8, true, -Recherche.INF, Recherche.INF);
+                sans += off.stats.noeuds;
+                avec += on.stats.noeuds;
+                reductions += on.stats.reductions;
+                elagues += on.stats.coupsElagues;
+            }
+        }
+        check(avec < sans && reductions > 0 && elagues > 0, "selectivity cuts nodes (" + avec + " / " + sans + ")");
+        int[] coups = new int[Move.MAX_MOVES];
+        coups = Arrays.copyOf(coups, gain.generateMoves(EscampeBoard.WHITE, coups));
+        Recherche off = recherche(gain, EscampeBoard.WHITE, false), on = recherche(gain, EscampeBoard.WHITE, true);
+        int coupSans = JoueurIA.rootSearch(off, 7, coups.clone(), -Recherche.INF, Recherche.INF);
+        int coupAvec = JoueurIA.rootSearch(on, 7, coups.clone(), -Recherche.INF, Recherche.INF);
+        check(off.rootScore == Recherche.WIN - 5 && on.rootScore == off.rootScore && coupAvec == coupSans,
+              "selectivity keeps the forced win");
+    }
+
+    private static void testPVS() throws Exception {
+        EscampeBoard[] positions = {new EscampeBoard(), new EscampeBoard(), plateau(CALME_1), plateau(CALME_2)};
+        positions[0].setFromFile(INPUT);
+        positions[1].setFromFile(TEST);
+        int[] coups = new int[Move.MAX_MOVES];
+        for (EscampeBoard b : positions) {
+            for (int couleur = 0; couleur < 2; couleur++) {
+                int[] racine = Arrays.copyOf(coups, b.generateMoves(couleur, coups));
+                Recherche ref = recherche(b, couleur, false);
+                ref.avecQuiescence = false;
+                int attendu = alphaBeta(ref, 6, true, -Recherche.INF, Recherche.INF);
+
+                // PVS à la racine, puis fenêtre d'aspiration juste, trop haute
+                // (échec bas) et trop basse (échec haut) : même score
+                for (int centre : new int[] {Integer.MIN_VALUE, attendu, attendu + 500, attendu - 500}) {
+                    Recherche r = recherche(b, couleur, false);
+                    r.avecQuiescence = false;
+                    if (centre == Integer.MIN_VALUE) {
+                        JoueurIA.rootSearch(r, 6, racine.clone(), -Recherche.INF, Recherche.INF);
+                    } else {
+                        int alpha = Math.max(-Recherche.INF, centre - 20);
+                        int beta  = Math.min(Recherche.INF, centre + 20);
+                        JoueurIA.aspirationSearch(r, 6, racine.clone(), alpha, beta);
+                    }
+                    check(r.rootScore == attendu, "PVS root score " + r.rootScore + " = alpha-beta " + attendu);
+                }
+            }
+        }
+
+        // Les fenêtres décalées d'une position calme sortent bien du score au premier essai
+        int decalage = 500, demi = 20;
+        EscampeBoard b = plateau(CALME_1);
+        int[] racine = Arrays.copyOf(coups, b.generateMoves(EscampeBoard.WHITE, coups));
+        Recherche ref = recherche(b, EscampeBoard.WHITE, false);
+        ref.avecQuiescence = false;
+        int attendu = alphaBeta(ref, 6, true, -Recherche.INF, Recherche.INF);
+        check(Math.abs(attendu) < Recherche.GAIN, "quiet position for the aspiration test");
+        Recherche r = recherche(b, EscampeBoard.WHITE, false);
+        r.avecQuiescence = false;
+        JoueurIA.rootSearch(r, 6, racine.clone(), attendu + decalage - demi, attendu + decalage + demi);
+        check(r.rootScore <= attendu + decalage - demi, "aspiration fail-low");
+        JoueurIA.rootSearch(r, 6, racine.clone(), attendu - decalage - demi, attendu - decalage + demi);
+        check(r.rootScore >= attendu - decalage + demi, "aspiration fail-high");
+    }
+
+    private static void testOrdre() throws Exception {
+        // Le coup de la table d'abord, puis la prise de licorne, chacun une seule fois
+        EscampeBoard b = plateau("01 bN---- 01", "02 ------ 02", "03 ------ 03",
+                                 "04 ------ 04", "05 ------ 05", "06 -----B 06");
+        int[] coups = new int[Move.MAX_MOVES];
+        int n = b.generateMoves(EscampeBoard.WHITE, coups), tranquille = Move.NONE;
+        for (int i = 0; i < n; i++) if (!Move.isCapture(coups[i])) tranquille = coups[i];
+        OrdreCoups ordre = new OrdreCoups();
+        GenerateurCoups gen = ordre.generateur(0);
+        gen.init(b, EscampeBoard.WHITE, tranquille, 0);
+        int premier = gen.next(), second = gen.next(), rendus = 2;
+        while (gen.next() != Move.NONE) rendus++;
+        check(premier == tranquille && Move.isCapture(second) && rendus == n, "TT move, then capture");
+        gen.init(b, EscampeBoard.WHITE, Move.NONE, 0);
+        check(Move.isCapture(gen.next()), "capture first without TT move");
+
+        // Approfondissement itératif jusqu'à 8 avec et sans ordonnancement :
+        // mêmes valeurs, moins de noeuds, plus de coupures au premier coup
+        EscampeBoard[] positions = {new EscampeBoard(), new EscampeBoard(),
+                                    plateau(CALME_1), plateau(CALME_2), plateau(GAIN_5)};
+        positions[0].setFromFile(INPUT);
+        positions[1].setFromFile(TEST);
+        long[] noeuds = new long[2], coupures = new long[2], premiers = new long[2];
+        for (EscampeBoard p : positions) {
+            for (int couleur = 0; couleur < 2; couleur++) {
+                int[] valeurs = new int[2];
+                for (int k = 0; k < 2; k++) {
+                    OrdreCoups o = new OrdreCoups();
+                    o.actif = k == 0;
+                    Recherche r = new Recherche(p, new TranspositionTable(1), new Recherche.Controle(Long.MAX_VALUE),
+                                                o, couleur);
+                    r.lmr = r.futilite = r.razoring = r.avecQuiescence = false;
+                    for (int depth = 1; depth <= 8; depth++) {
+                        valeurs[k] = r.minimaxValue(depth, true, -Recherche.INF, Recherche.INF);
+                    }
+                    noeuds[k]   += r.stats.noeuds;
+                    coupures[k] += r.stats.coupures;
+                    premiers[k] += r.stats.coupuresPremierCoup;
+                }
+                check(valeurs[0] == valeurs[1], "same value with and without move ordering");
+            }
+        }
+        check(noeuds[0] < noeuds[1], "move ordering cuts nodes (" + noeuds[0] + " / " + noeuds[1] + ")");
+        check(premiers[0] * coupures[1] > premiers[1] * coupures[0], "move ordering: more first-move cutoffs");
+    }
+
+    /** Evénements {@code nom} enregistrés par JFR pendant {@code action}. */
+    private static List<jdk.jfr.consumer.RecordedEvent> evenements(String nom, Runnable action) throws Exception {
+        Path f = Files.createTempFile("escampe", ".jfr");
+        try (jdk.jfr.Recording rec = new jdk.jfr.Recording()) {
+            rec.enable(nom);
+            rec.start();
+            action.run();
+            rec.stop();
+            rec.dump(f);
+        }
+        List<jdk.jfr.consumer.RecordedEvent> liste = new ArrayList<>();
+        for (jdk.jfr.consumer.RecordedEvent e : jdk.jfr.consumer.RecordingFile.readAllEvents(f)) {
+            if (e.getEventType().getName().equals(nom)) liste.add(e);
+        }
+        Files.delete(f);
+        return liste;
+    }
+
+    private static void testEvenementsJfr() throws Exception {
+        // Un joueur réutilisé : le placement de la partie suivante n'a pas de recherche
+        JoueurIA ia = new JoueurIA();
+        ia.setTempsParCoup(60_000);
+        ia.setProfondeurMax(4);
+        ia.setPonder(false);
+        ia.initJoueur(IJoueur.BLANC);
+        ia.positionner(plateau(CALME_1));
+        ia.choixMouvement();
+        check(ia.getTelemetrie() != null, "telemetry after a search");
+        ia.initJoueur(IJoueur.NOIR);
+        check(ia.getTelemetrie() == null, "telemetry reset by initJoueur");
+        List<jdk.jfr.consumer.RecordedEvent> coups = evenements("escampe.Coup", ia::choixMouvement);
+        check(coups.size() == 1 && coups.get(0).getInt("profondeur") == 0 && coups.get(0).getLong("noeuds") == 0,
+              "placement event of a new game");
+
+        // La recherche, qui ne passe pas par possiblesMoves, est échantillonnée
+        JoueurIA chercheur = new JoueurIA();
+        chercheur.setTempsParCoup(60_000);
+        chercheur.setProfondeurMax(8);
+        chercheur.setPonder(false);
+        chercheur.initJoueur(IJoueur.BLANC);
+        chercheur.positionner(plateau(CALME_1));
+        List<jdk.jfr.consumer.RecordedEvent> rafales = evenements("escampe.Generation", chercheur::choixMouvement);
+        check(!rafales.isEmpty() && rafales.get(0).getInt("appels") == EvenementsJfr.Generation.RAFALE
+              && rafales.get(0).getLong("coups") > 0, "generation bursts sampled during the search");
+    }
+
+    private static void testReflexion() throws Exception {
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(INPUT);
+        JoueurIA ia = new JoueurIA();
+        ia.setTempsParCoup(100);
+        ia.setPonder(true);
+        ia.initJoueur(IJoueur.BLANC);
+        ia.positionner(b);
+        for (int i = 0; i < 4 && !b.gameOver(); i++) {
+            String coup = ia.choixMouvement();
+            check(b.isValidMove(coup, "blanc"), "legal move with pondering: " + coup);
+            b.play(coup, "blanc");
+            // La réflexion tourne maintenant sur le temps adverse sans toucher
+            // à la profondeur du coup joué
+            int profondeur = ia.getCompletedDepth();
+            Thread.sleep(150);
+            check(ia.getCompletedDepth() == profondeur, "pondering keeps the last move's depth");
+            if (b.gameOver()) break;
+            // Coups adverses tantôt prévus, tantôt non : la partie continue dans les deux cas
+            String[] reponses = b.possiblesMoves("noir");
+            String reponse = reponses[i % reponses.length];
+            b.play(reponse, "noir");
+            ia.mouvementEnnemi(reponse);
+        }
+        ia.declareLeVainqueur(ClientJeu.VIDE);
+    }
+
+    private static void testPools() throws Exception {
+        java.util.concurrent.ForkJoinPool deux = JoueurIA.pool(2);
+        check(JoueurIA.pool(3) != deux && JoueurIA.pool(2) == deux && !deux.isShutdown(), "one pool per parallelism");
+
+        // Deux joueurs aux nombres de fils différents cherchent en même temps
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(INPUT);
+        String[] coups = new String[2];
+        Thread[] fils = new Thread[2];
+        for (int i = 0; i < 2; i++) {
+            JoueurIA ia = new JoueurIA();
+            ia.setTempsParCoup(60_000);
+            ia.setProfondeurMax(6);
+            ia.setPonder(false);
+            ia.setThreads(2 + i);
+            ia.setModeParallele(JoueurIA.YBWC);
+            ia.initJoueur(IJoueur.BLANC);
+            ia.positionner(b);
+            int k = i;
+            fils[i] = new Thread(() -> coups[k] = ia.choixMouvement());
+            fils[i].start();
+        }
+        for (int i = 0; i < 2; i++) {
+            fils[i].join();
+            check(coups[i] != null && b.isValidMove(coups[i], "blanc"), "concurrent players with different pools");
+        }
+    }
+
+    private static void testMCTS() throws Exception {
+        // Paladin blanc en A1 (liseré 1) à côté de la licorne noire en B1
+        Path pos = Files.createTempFile("mcts", ".txt");
+        Files.write(pos, Arrays.asList("01 bN---- 01", "02 ------ 02", "03 ------ 03",
+                                       "04 ------ 04", "05 ------ 05", "06 -----B 06"));
+        EscampeBoard b = new EscampeBoard();
+        b.setFromFile(pos.toString());
+        Files.delete(pos);
+        for (int threads = 1; threads <= 2; threads++) {
+            JoueurMCTS mcts = new JoueurMCTS();
+            mcts.setTempsParCoup(100);
+            mcts.setThreads(threads);
+            mcts.initJoueur(IJoueur.BLANC);
+            mcts.positionner(b);
+            check(mcts.choixMouvement().equals("A1-B1"), "MCTS takes the licorne (" + threads + " threads)");
+            check(mcts.getSimulations() > 0 && mcts.getSimulationsParSeconde() > 0, "MCTS playout count");
+        }
+
+        b.setFromFile(INPUT);
+        String avant = state(b);
+        JoueurMCTS mcts = new JoueurMCTS();
+        mcts.setTempsParCoup(50);
+        mcts.initJoueur(IJoueur.BLANC);
+        mcts.positionner(b);
+        String coup = mcts.choixMouvement();
+        check(b.isValidMove(coup, "blanc") && state(b).equals(avant), "MCTS legal move, board untouched");
+    }
 }
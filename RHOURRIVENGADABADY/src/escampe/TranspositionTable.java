@@ -0,0 +1,119 @@
+package escampe;
+
+/**
+ * Table de transposition de taille fixe, partagée sans verrou entre les fils
+ * de la recherche.
+ *
+ * Les entrées sont rangées par paquets de deux dans un simple {@code long[]}
+ * (trois longs par entrée, aucun objet alloué) :
+ * <ul>
+ *   <li>mot 0 : clé Zobrist ^ mot 1 ^ mot 2</li>
+ *   <li>mot 1 : âge (5) | profondeur (8) | borne (2) | coup {@link Move} (14)</li>
+ *   <li>mot 2 : le score</li>
+ * </ul>
+ * Un fil peut lire une entrée pendant qu'un autre l'écrit : les trois mots ne
+ * viennent alors pas de la même écriture et le XOR ne redonne pas la clé, si
+ * bien que l'entrée est simplement ignorée. Aucun verrou ni CAS n'est donc
+ * nécessaire. Remplacement : la première case garde l'entrée la plus profonde
+ * de la recherche courante, la seconde est toujours écrasée.
+ *
+ * Un score de licorne prise est compté depuis la racine de la recherche
+ * ({@link Recherche#WIN} moins la distance) ; la table le garde compté depuis
+ * la position elle-même, pour qu'il reste juste atteint à un autre pli ou
+ * dans une recherche suivante.
+ */
+public class TranspositionTable {
+    // Types de borne ; 0 signale une case vide
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;   // score >= valeur stockée
+    public static final int UPPER = 3;   // score <= valeur stockée
+
+    private static final int ENTRY_LONGS = 3;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+
+    private static final int AGE_SHIFT = 24, DEPTH_SHIFT = 16, BOUND_SHIFT = 14;
+    private static final int MOVE_MASK = (1 << 14) - 1;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    /** Résultat d'une lecture, réutilisé par l'appelant pour ne rien allouer. */
+    public static final class Hit {
+        public int depth;
+        public int bound;
+        public int move;
+        public int score;
+    }
+
+    /**
+     * @param megabytes budget mémoire ; le nombre de paquets est arrondi à la
+     *                  puissance de deux inférieure
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Math.max(1L, (long) megabytes * 1024 * 1024 / (BUCKET_LONGS * 8));
+        buckets = Long.highestOneBit(Math.min(buckets, 1L << 26));
+        this.table = new long[(int) buckets * BUCKET_LONGS];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /** Nouvelle recherche : les entrées des coups précédents deviennent remplaçables. */
+    public void newSearch() {
+        age = (age + 1) & 31;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(table, 0L);
+    }
+
+    /**
+     * Remplit {@code hit} et renvoie vrai si la position {@code key} est dans
+     * la table ; {@code ply} est sa distance à la racine de la recherche.
+     */
+    public boolean probe(long key, int ply, Hit hit) {
+        int base = ((int) key & bucketMask) * BUCKET_LONGS;
+        for (int i = base; i < base + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long meta = table[i + 1], score = table[i + 2];
+            if (meta != 0 && (table[i] ^ meta ^ score) == key) {
+                hit.depth = (int) (meta >>> DEPTH_SHIFT) & 0xFF;
+                hit.bound = (int) (meta >>> BOUND_SHIFT) & 3;
+                hit.move  = (int) meta & MOVE_MASK;
+                hit.score = depuisTable((int) score, ply);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Range la position {@code key}, à {@code ply} de la racine de la recherche. */
+    public void store(long key, int depth, int bound, int score, int move, int ply) {
+        int base = ((int) key & bucketMask) * BUCKET_LONGS;
+        int slot = base + ENTRY_LONGS;  // par défaut, la case toujours remplacée
+        int currentAge = age;
+        long meta0 = table[base + 1];
+        if (meta0 == 0
+         || (table[base] ^ meta0 ^ table[base + 2]) == key
+         || ((int) (meta0 >>> AGE_SHIFT) & 31) != currentAge
+         || depth >= ((int) (meta0 >>> DEPTH_SHIFT) & 0xFF)) {
+            slot = base;
+        }
+        long meta = ((long) currentAge << AGE_SHIFT)
+                  | ((long) depth << DEPTH_SHIFT)
+                  | ((long) bound << BOUND_SHIFT)
+                  | (move & MOVE_MASK);
+        long bits = versTable(score, ply);
+        table[slot]     = key ^ meta ^ bits;
+        table[slot + 1] = meta;
+        table[slot + 2] = bits;
+    }
+
+    /** Score à ranger : une licorne prise est comptée depuis le noeud, à {@code ply} de la racine. */
+    static int versTable(int score, int ply) {
+        return score >= Recherche.GAIN ? score + ply : score <= -Recherche.GAIN ? score - ply : score;
+    }
+
+    /** Inverse de {@link #versTable} : la distance est de nouveau comptée depuis la racine. */
+    static int depuisTable(int score, int ply) {
+        return score >= Recherche.GAIN ? score - ply : score <= -Recherche.GAIN ? score + ply : score;
+    }
+}